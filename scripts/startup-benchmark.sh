@@ -0,0 +1,45 @@
+#!/usr/bin/env bash
+# Time from JVM launch to the first tools/list response over stdio, with and without the AOT cache.
+# Build first:  ./mvnw -Pfast-start -DskipTests verify
+# Usage:        scripts/startup-benchmark.sh [runs]   (needs the database from application.properties)
+set -euo pipefail
+
+RUNS="${1:-5}"
+DIR="$(cd "$(dirname "$0")/.." && pwd)/target/fast-start"
+JAR="$(cd "$DIR" && ls scholar-*.jar | head -n 1)"
+
+INIT='{"jsonrpc":"2.0","id":1,"method":"initialize","params":{"protocolVersion":"2024-11-05","capabilities":{},"clientInfo":{"name":"startup-benchmark","version":"1"}}}'
+INITIALIZED='{"jsonrpc":"2.0","method":"notifications/initialized"}'
+LIST='{"jsonrpc":"2.0","id":2,"method":"tools/list","params":{}}'
+
+now_ms() { date +%s%3N; }
+
+# Prints milliseconds until the server answers tools/list
+time_to_first_tool() {
+  local start line
+  start="$(now_ms)"
+  coproc SERVER { cd "$DIR" && exec java "$@" -Dspring.aot.enabled=true -jar "$JAR"; }
+  printf '%s\n%s\n%s\n' "$INIT" "$INITIALIZED" "$LIST" >&"${SERVER[1]}"
+  while IFS= read -r line <&"${SERVER[0]}"; do
+    if [[ "$line" == *'"id":2'* ]]; then
+      echo $(( $(now_ms) - start ))
+      break
+    fi
+  done
+  kill "$SERVER_PID" 2>/dev/null || true
+  wait "$SERVER_PID" 2>/dev/null || true
+}
+
+report() {
+  local label="$1"; shift
+  local total=0 best=999999 ms
+  for _ in $(seq "$RUNS"); do
+    ms="$(time_to_first_tool "$@")"
+    total=$(( total + ms ))
+    (( ms < best )) && best="$ms"
+  done
+  printf '%-16s avg %6d ms   best %6d ms   (%d runs)\n' "$label" $(( total / RUNS )) "$best" "$RUNS"
+}
+
+report "without cache"
+report "with AOT cache" -XX:AOTCache=scholar.aot
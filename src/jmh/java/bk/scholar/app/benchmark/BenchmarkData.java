@@ -0,0 +1,56 @@
+package bk.scholar.app.benchmark;
+
+import bk.scholar.app.domain.Student;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.drive.model.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic fixtures shared by the benchmarks and the Google API stub.
+ */
+final class BenchmarkData {
+
+  static final String FOLDER_MIME_TYPE = "application/vnd.google-apps.folder";
+  private static final String[] CITIES = {"Dhaka", "Chattogram", "Khulna", "Rajshahi", "Sylhet"};
+
+  private BenchmarkData() {
+  }
+
+  static List<Event> events(int count) {
+    List<Event> events = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      events.add(new Event()
+          .setId("evt" + i + "q8r2m4k6t0")
+          .setSummary("Study session " + i + " - chapter " + (i % 12 + 1))
+          .setEtag("\"3" + (100000000000L + i) + "\""));
+    }
+    return events;
+  }
+
+  static List<File> files(int count) {
+    List<File> files = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      files.add(new File()
+          .setId("1a2B3c4D5e6F7g8H9i0J" + i)
+          .setName(i % 10 == 0 ? "Folder " + i : "Lecture notes " + i + ".pdf")
+          .setMimeType(i % 10 == 0 ? FOLDER_MIME_TYPE : "application/pdf")
+          .setParents(List.of("root")));
+    }
+    return files;
+  }
+
+  static List<Student> students(int count) {
+    List<Student> students = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Student student = new Student();
+      student.setName("Student " + i);
+      student.setEmail("student" + i + "@example.edu");
+      student.setGender(i % 2 == 0 ? "Female" : "Male");
+      student.setCity(CITIES[i % CITIES.length]);
+      student.setMethod("benchmark");
+      students.add(student);
+    }
+    return students;
+  }
+}
@@ -0,0 +1,212 @@
+package bk.scholar.app.benchmark;
+
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.util.DateTime;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.Events;
+import com.google.api.services.calendar.model.FreeBusyCalendar;
+import com.google.api.services.calendar.model.FreeBusyRequest;
+import com.google.api.services.calendar.model.FreeBusyRequestItem;
+import com.google.api.services.calendar.model.FreeBusyResponse;
+import com.google.api.services.calendar.model.TimePeriod;
+import com.google.api.services.drive.model.FileList;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * In-process stand-in for the Calendar v3 and Drive v3 REST endpoints the tools call. Responses
+ * are rendered once up front, so the benchmarks measure the client side of the call: transport,
+ * JSON parsing, mapping and tool serialization.
+ */
+final class GoogleApiStub implements AutoCloseable {
+
+  private static final JsonFactory JSON_FACTORY = JacksonFactory.getDefaultInstance();
+  private static final Pattern BLANK_LINE = Pattern.compile("\r?\n\r?\n");
+  private final HttpServer server;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final byte[] eventList;
+  private final byte[] fileList;
+  private final String eventListEtag;
+  private final String fileListEtag;
+
+  private GoogleApiStub(int eventCount, int fileCount) throws IOException {
+    this.eventList = JSON_FACTORY.toByteArray(new Events().setItems(BenchmarkData.events(eventCount)));
+    this.fileList = JSON_FACTORY.toByteArray(new FileList().setFiles(BenchmarkData.files(fileCount)));
+    this.eventListEtag = "\"events-" + Arrays.hashCode(eventList) + "\"";
+    this.fileListEtag = "\"files-" + Arrays.hashCode(fileList) + "\"";
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/calendar/v3/", exchange -> handle(exchange, this::calendar));
+    server.createContext("/drive/v3/", exchange -> handle(exchange, this::drive));
+    server.createContext("/batch/calendar/v3", exchange -> handle(exchange, this::calendarBatch));
+    server.setExecutor(executor);
+    server.start();
+  }
+
+  static GoogleApiStub start(int eventCount, int fileCount) throws IOException {
+    return new GoogleApiStub(eventCount, fileCount);
+  }
+
+  /**
+   * @return root URL to hand to the client builders, ending with a slash
+   */
+  String rootUrl() {
+    InetSocketAddress address = server.getAddress();
+    return "http://" + address.getHostString() + ":" + address.getPort() + "/";
+  }
+
+  // An exception escaping a handler just drops the connection, answer 500 instead
+  private static void handle(HttpExchange exchange, HttpHandler handler) throws IOException {
+    try {
+      handler.handle(exchange);
+    } catch (RuntimeException | IOException e) {
+      respond(exchange, 500, JSON_FACTORY.toByteArray(Map.of("error", String.valueOf(e))));
+    }
+  }
+
+  private void calendar(HttpExchange exchange) throws IOException {
+    byte[] request = readBody(exchange);
+    if (exchange.getRequestURI().getPath().endsWith("/freeBusy")) {
+      respond(exchange, 200, freeBusy(JSON_FACTORY.fromString(
+          new String(request, StandardCharsets.UTF_8), FreeBusyRequest.class)));
+      return;
+    }
+    switch (exchange.getRequestMethod()) {
+      case "GET" -> respondCacheable(exchange, eventList, eventListEtag);
+      case "POST" -> respond(exchange, 200, created(new String(request, StandardCharsets.UTF_8)));
+      case "DELETE" -> respond(exchange, 204, null);
+      default -> respond(exchange, 405, null);
+    }
+  }
+
+  private static byte[] created(String eventJson) throws IOException {
+    Event event = JSON_FACTORY.fromString(eventJson, Event.class);
+    event.setId(UUID.randomUUID().toString().replace("-", ""));
+    event.setEtag("\"" + System.nanoTime() + "\"");
+    return JSON_FACTORY.toByteArray(event);
+  }
+
+  // Batched event inserts: every part is answered as a created event, in request order
+  private void calendarBatch(HttpExchange exchange) throws IOException {
+    String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+    String boundary = contentType.substring(contentType.indexOf("boundary=") + 9);
+    String request = new String(readBody(exchange), StandardCharsets.UTF_8);
+    StringBuilder response = new StringBuilder();
+    for (String part : request.split("--" + Pattern.quote(boundary))) {
+      int body = nthBlankLine(part, 2);
+      if (body < 0) {
+        continue;
+      }
+      response.append("--batch_stub\r\nContent-Type: application/http\r\n\r\n")
+          .append("HTTP/1.1 200 OK\r\nContent-Type: application/json; charset=UTF-8\r\n\r\n")
+          .append(new String(created(part.substring(body).trim()), StandardCharsets.UTF_8))
+          .append("\r\n");
+    }
+    response.append("--batch_stub--\r\n");
+    exchange.getResponseHeaders().set("Content-Type", "multipart/mixed; boundary=batch_stub");
+    byte[] bytes = response.toString().getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(200, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  // Index just past the n-th empty line (part headers, then the embedded request's headers)
+  private static int nthBlankLine(String part, int n) {
+    Matcher blank = BLANK_LINE.matcher(part);
+    int end = -1;
+    for (int i = 0; i < n; i++) {
+      if (!blank.find()) {
+        return -1;
+      }
+      end = blank.end();
+    }
+    return end;
+  }
+
+  // Every calendar is busy for 45 minutes every 3 hours, staggered by 30 minutes per calendar
+  private static byte[] freeBusy(FreeBusyRequest request) throws IOException {
+    long from = request.getTimeMin().getValue();
+    long to = request.getTimeMax().getValue();
+    Map<String, FreeBusyCalendar> calendars = new HashMap<>();
+    int index = 0;
+    for (FreeBusyRequestItem item : request.getItems()) {
+      List<TimePeriod> busy = new ArrayList<>();
+      for (long start = from + (index++ % 6) * 1_800_000L; start < to; start += 10_800_000L) {
+        busy.add(new TimePeriod().setStart(new DateTime(start))
+            .setEnd(new DateTime(start + 2_700_000L)));
+      }
+      calendars.put(item.getId(), new FreeBusyCalendar().setBusy(busy));
+    }
+    return JSON_FACTORY.toByteArray(new FreeBusyResponse().setTimeMin(request.getTimeMin())
+        .setTimeMax(request.getTimeMax()).setCalendars(calendars));
+  }
+
+  private void drive(HttpExchange exchange) throws IOException {
+    readBody(exchange);
+    if ("GET".equals(exchange.getRequestMethod())) {
+      respondCacheable(exchange, fileList, fileListEtag);
+    } else {
+      respond(exchange, 405, null);
+    }
+  }
+
+  // The Google client gzips request content unless told otherwise
+  private static byte[] readBody(HttpExchange exchange) throws IOException {
+    InputStream body = exchange.getRequestBody();
+    if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+      body = new GZIPInputStream(body);
+    }
+    try (InputStream request = body) {
+      return request.readAllBytes();
+    }
+  }
+
+  // The listings never change, so a matching If-None-Match is always answered with 304
+  private static void respondCacheable(HttpExchange exchange, byte[] body, String etag)
+      throws IOException {
+    exchange.getResponseHeaders().set("ETag", etag);
+    if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+      respond(exchange, 304, null);
+    } else {
+      respond(exchange, 200, body);
+    }
+  }
+
+  private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+    if (body == null) {
+      exchange.sendResponseHeaders(status, -1);
+      exchange.close();
+      return;
+    }
+    exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream response = exchange.getResponseBody()) {
+      response.write(body);
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.close();
+  }
+}
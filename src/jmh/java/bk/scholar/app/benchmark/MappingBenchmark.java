@@ -0,0 +1,66 @@
+package bk.scholar.app.benchmark;
+
+import bk.scholar.app.config.Utility;
+import bk.scholar.app.dto.CalendarEvent;
+import bk.scholar.app.dto.FileItem;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.drive.model.File;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-item costs on the tool paths: event time construction, date parsing and the Google model
+ * to tool DTO mappings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+  private Event event;
+  private File file;
+
+  @Setup
+  public void setUp() {
+    event = BenchmarkData.events(1).get(0);
+    file = BenchmarkData.files(1).get(0);
+  }
+
+  @Benchmark
+  public Utility.EventTime createEventTime() {
+    return Utility.createEventTime("2025-10-25");
+  }
+
+  @Benchmark
+  public DateTime toDateTimeFromDate() {
+    return Utility.toDateTime("2025-10-25");
+  }
+
+  @Benchmark
+  public DateTime toDateTimeFromTimestamp() {
+    return Utility.toDateTime("2025-10-25T14:00:00+06:00");
+  }
+
+  @Benchmark
+  public CalendarEvent calendarEventFromEvent() {
+    return CalendarEvent.from(event);
+  }
+
+  @Benchmark
+  public FileItem fileItemFromFile() {
+    return FileItem.from(file);
+  }
+}
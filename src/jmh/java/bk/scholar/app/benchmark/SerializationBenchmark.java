@@ -0,0 +1,72 @@
+package bk.scholar.app.benchmark;
+
+import bk.scholar.app.dto.CalendarEvent;
+import bk.scholar.app.dto.CalendarEventPage;
+import bk.scholar.app.dto.FileItem;
+import bk.scholar.app.dto.StudentItem;
+import bk.scholar.app.dto.StudentPage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.tool.execution.DefaultToolCallResultConverter;
+import org.springframework.ai.tool.execution.ToolCallResultConverter;
+
+/**
+ * JSON conversion of large tool results, using the same converter the tool callbacks use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+  @Param({"250", "2500"})
+  public int size;
+
+  private final ToolCallResultConverter converter = new DefaultToolCallResultConverter();
+  private CalendarEventPage events;
+  private List<FileItem> files;
+  private StudentPage students;
+
+  @Setup
+  public void setUp() {
+    events = new CalendarEventPage(BenchmarkData.events(size).stream()
+        .map(CalendarEvent::from)
+        .toList(), "next-page-token");
+    files = BenchmarkData.files(size).stream()
+        .map(FileItem::from)
+        .toList();
+    long[] id = {0};
+    students = new StudentPage(BenchmarkData.students(size).stream()
+        .map(s -> new StudentItem(++id[0], s.getName(), s.getEmail(), s.getGender(), s.getCity(),
+            s.getMethod()))
+        .toList(), id[0]);
+  }
+
+  @Benchmark
+  public String calendarEventPage() {
+    return converter.convert(events, CalendarEventPage.class);
+  }
+
+  @Benchmark
+  public String fileItems() {
+    return converter.convert(files, List.class);
+  }
+
+  @Benchmark
+  public String studentPage() {
+    return converter.convert(students, StudentPage.class);
+  }
+}
@@ -0,0 +1,37 @@
+package bk.scholar.app.benchmark;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.drive.Drive;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Calendar and Drive clients pointed at {@link GoogleApiStub}, on the application's shared
+ * transport (response cache included). Deliberately not a {@code @Configuration} so component
+ * scanning never picks it up; the benchmark registers it as an extra source.
+ */
+public class StubGoogleClients {
+
+  @Bean
+  @Primary
+  public Calendar stubCalendar(HttpTransport googleHttpTransport,
+      @Value("${benchmark.google-stub-url}") String rootUrl) {
+    return new Calendar.Builder(googleHttpTransport, JacksonFactory.getDefaultInstance(), null)
+        .setRootUrl(rootUrl)
+        .setApplicationName("scholar-benchmark")
+        .build();
+  }
+
+  @Bean
+  @Primary
+  public Drive stubDrive(HttpTransport googleHttpTransport,
+      @Value("${benchmark.google-stub-url}") String rootUrl) {
+    return new Drive.Builder(googleHttpTransport, JacksonFactory.getDefaultInstance(), null)
+        .setRootUrl(rootUrl)
+        .setApplicationName("scholar-benchmark")
+        .build();
+  }
+}
@@ -0,0 +1,131 @@
+package bk.scholar.app.benchmark;
+
+import bk.scholar.app.ScholarApplication;
+import bk.scholar.app.pepository.StudentRepository;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * End-to-end tool calls through the registered callbacks (concurrency limits, metrics, JSON in
+ * and out) against {@link GoogleApiStub} and an in-memory H2 database. Fully offline.
+ * Throughput is reported in ops/ms, and sample mode reports p50/p90/p99/p99.9 latencies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ToolLatencyBenchmark {
+
+  private static final int EVENT_COUNT = 250;
+  private static final int FILE_COUNT = 500;
+  private static final int STUDENT_COUNT = 10_000;
+  private static final String FREE_SLOTS_REQUEST = "{\"participants\":["
+      + IntStream.range(0, 60).mapToObj(i -> "\"p" + i + "@example.edu\"")
+      .collect(Collectors.joining(","))
+      + "],\"windowStart\":\"2025-10-26\",\"windowEnd\":\"2025-11-02\",\"durationMinutes\":30}";
+
+  private GoogleApiStub stub;
+  private ConfigurableApplicationContext context;
+  private Map<String, ToolCallback> tools;
+
+  @Setup(Level.Trial)
+  public void start() throws IOException {
+    stub = GoogleApiStub.start(EVENT_COUNT, FILE_COUNT);
+    // Command-line arguments, so they win over application.properties
+    context = new SpringApplicationBuilder(ScholarApplication.class, StubGoogleClients.class)
+        .run(
+            "--spring.main.web-application-type=none",
+            "--spring.main.banner-mode=off",
+            "--spring.ai.mcp.server.enabled=false",
+            "--spring.datasource.url=jdbc:h2:mem:scholar;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--spring.sql.init.mode=never",
+            "--scholar.google.authorize-on-startup=false",
+            "--scholar.calendar-mirror.enabled=false",
+            "--scholar.drive-index.enabled=false",
+            "--scholar.google.rate.user-per-second=1000000",
+            "--scholar.google.rate.project-per-second=1000000",
+            "--scholar.metrics.dump-file=",
+            "--benchmark.google-stub-url=" + stub.rootUrl());
+    context.getBean(StudentRepository.class).saveAll(BenchmarkData.students(STUDENT_COUNT));
+    @SuppressWarnings("unchecked")
+    List<ToolCallback> callbacks = (List<ToolCallback>) context.getBean("toolCallbacks");
+    tools = callbacks.stream()
+        .collect(Collectors.toMap(c -> c.getToolDefinition().name(), Function.identity()));
+  }
+
+  @TearDown(Level.Trial)
+  public void stop() {
+    context.close();
+    stub.close();
+  }
+
+  @Benchmark
+  public String findAllEventsOfACalendar() {
+    return tools.get("find_all_events_of_a_calendar").call("{\"maxResults\":250}");
+  }
+
+  @Benchmark
+  public String createCalendarEventOnDate() {
+    return tools.get("create_calendar_event_on_date")
+        .call("{\"dateString\":\"2025-10-25\",\"summary\":\"Benchmark session\"}");
+  }
+
+  // Two free/busy queries (organizer plus 60 participants) and the interval merge over a week
+  @Benchmark
+  public String findFreeSlots() {
+    return tools.get("find_free_slots").call(FREE_SLOTS_REQUEST);
+  }
+
+  @Benchmark
+  public String listAllFilesAndFolders() {
+    return tools.get("list_all_files_and_folders").call("{\"folderId\":\"root\"}");
+  }
+
+  @Benchmark
+  public String findAStudent() {
+    long id = ThreadLocalRandom.current().nextLong(1, STUDENT_COUNT + 1);
+    return tools.get("find_a_student").call("{\"id\":" + id + "}");
+  }
+
+  @Benchmark
+  public String retrieveStudents() {
+    long afterId = ThreadLocalRandom.current().nextLong(0, STUDENT_COUNT - 100);
+    return tools.get("retrieve_students").call("{\"afterId\":" + afterId + ",\"pageSize\":100}");
+  }
+
+  @Benchmark
+  public String retrieveStudentsCompact() {
+    long afterId = ThreadLocalRandom.current().nextLong(0, STUDENT_COUNT - 100);
+    return tools.get("retrieve_students").call("{\"afterId\":" + afterId
+        + ",\"pageSize\":100,\"fields\":[\"name\",\"email\"],\"format\":\"table\"}");
+  }
+}
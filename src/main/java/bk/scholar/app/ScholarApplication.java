@@ -1,30 +1,123 @@
 package bk.scholar.app;
 
+import bk.scholar.app.config.ToolExecutionProperties;
+import bk.scholar.app.service.SchedulingService;
+import bk.scholar.app.service.StudentAnalyticsService;
+import bk.scholar.app.service.StudentImportService;
 import bk.scholar.app.service.StudentService;
+import bk.scholar.app.service.ToolCallJournal;
+import bk.scholar.app.tool.DeduplicatingToolCallback;
+import bk.scholar.app.tool.DeduplicatingToolCallback.Mode;
 import bk.scholar.app.tool.GSuiteTools;
+import bk.scholar.app.tool.LimitedToolCallback;
+import bk.scholar.app.tool.MeteredResultConverter;
+import bk.scholar.app.tool.MeteredToolCallback;
+import bk.scholar.app.tool.TenantToolCallback;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Arrays;
 import java.util.List;
-import org.springframework.ai.support.ToolCallbacks;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+import org.springframework.ai.tool.method.MethodToolCallback;
+import org.springframework.ai.tool.support.ToolDefinitions;
+import org.springframework.ai.tool.support.ToolUtils;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.util.ReflectionUtils;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableConfigurationProperties(ToolExecutionProperties.class)
 public class ScholarApplication {
 
+  // Tools that call Google on behalf of a tenant
+  private static final Set<Class<?>> GOOGLE_TOOLS = Set.of(GSuiteTools.class,
+      SchedulingService.class, StudentImportService.class);
+
   public static void main(String[] args) {
     SpringApplication.run(ScholarApplication.class, args);
   }
 
+  @Bean(destroyMethod = "close")
+  public ExecutorService toolExecutor() {
+    return Executors.newVirtualThreadPerTaskExecutor();
+  }
+
   @Bean
   public List<ToolCallback> toolCallbacks(
       GSuiteTools gSuiteTools,
-      StudentService studentService) {
-    return List.of(
-        ToolCallbacks.from(
+      StudentService studentService,
+      StudentAnalyticsService studentAnalyticsService,
+      StudentImportService studentImportService,
+      SchedulingService schedulingService,
+      ToolCallJournal toolCallJournal,
+      ExecutorService toolExecutor,
+      ToolExecutionProperties toolExecution,
+      MeterRegistry meterRegistry,
+      @Value("${spring.ai.mcp.server.stdio:false}") boolean stdio,
+      @Value("${scholar.google.tenants.allowed:}") Set<String> allowedTenants) {
+    Predicate<String> tenantPolicy = TenantToolCallback.policy(stdio, allowedTenants);
+    return Stream.of(
             gSuiteTools,
-            studentService
-        ));
+            studentService,
+            studentAnalyticsService,
+            studentImportService,
+            schedulingService,
+            toolCallJournal
+        )
+        .flatMap(toolObject -> methodToolCallbacks(toolObject, meterRegistry)
+            .map(callback -> GOOGLE_TOOLS.contains(AopUtils.getTargetClass(toolObject))
+                ? new TenantToolCallback(callback, tenantPolicy) : callback))
+        .<ToolCallback>map(callback -> new LimitedToolCallback(callback, toolExecutor,
+            toolExecution.concurrencyFor(callback.getToolDefinition().name()),
+            toolExecution.acquireTimeout(), toolExecution.callTimeout()))
+        // Outside the concurrency limit, so duplicates never take a slot
+        .map(callback -> deduplicated(callback, toolExecution, meterRegistry))
+        .<ToolCallback>map(callback -> new MeteredToolCallback(callback, meterRegistry,
+            toolCallJournal))
+        .toList();
+  }
+
+  private static ToolCallback deduplicated(ToolCallback callback,
+      ToolExecutionProperties toolExecution, MeterRegistry meterRegistry) {
+    String name = callback.getToolDefinition().name();
+    if (toolExecution.isSingleFlight(name)) {
+      return new DeduplicatingToolCallback(callback, Mode.SINGLE_FLIGHT,
+          toolExecution.idempotencyTtl(), toolExecution.idempotencyMaxResults(), meterRegistry);
+    }
+    if (toolExecution.isIdempotent(name)) {
+      return new DeduplicatingToolCallback(callback, Mode.IDEMPOTENT,
+          toolExecution.idempotencyTtl(), toolExecution.idempotencyMaxResults(), meterRegistry);
+    }
+    return callback;
+  }
+
+  // Same discovery as ToolCallbacks.from, but with a timed result converter per tool
+  private static Stream<ToolCallback> methodToolCallbacks(Object toolObject,
+      MeterRegistry meterRegistry) {
+    Class<?> toolClass = AopUtils.getTargetClass(toolObject);
+    return Arrays.stream(ReflectionUtils.getDeclaredMethods(toolClass))
+        .filter(method -> method.isAnnotationPresent(Tool.class))
+        .map(method -> MethodToolCallback.builder()
+            .toolDefinition(ToolDefinitions.from(method))
+            .toolMetadata(ToolMetadata.from(method))
+            .toolMethod(method)
+            .toolObject(toolObject)
+            .toolCallResultConverter(new MeteredResultConverter(
+                ToolUtils.getToolCallResultConverter(method), meterRegistry,
+                ToolUtils.getToolName(method)))
+            .build());
   }
 
 }
@@ -0,0 +1,362 @@
+package bk.scholar.app.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Conditional-GET cache in front of {@link JdkHttpTransport}. GET responses that carry an
+ * {@code ETag} are kept in a byte-bounded cache; the next GET of the same URL is sent with
+ * {@code If-None-Match} and a {@code 304} is answered from the cached body. Every read still
+ * reaches Google, so nothing is served stale; an unchanged resource just costs an empty
+ * response. Any other method drops the cached reads under the parent path of its URL.
+ */
+public class CachingHttpTransport extends HttpTransport {
+
+  /**
+   * Request header naming whose credentials a request carries, so cached responses are never
+   * shared across users. It is consumed here and never sent; without it the
+   * {@code Authorization} value is used, which changes with every token refresh.
+   */
+  public static final String PRINCIPAL_HEADER = "X-Scholar-Principal";
+  private static final String ETAG = "etag";
+  private final JdkHttpTransport delegate;
+  private final Cache<Key, Entry> cache;
+  private final long maxEntryBytes;
+  private final LongAdder revalidated = new LongAdder();
+  private final LongAdder modified = new LongAdder();
+  private final LongAdder missed = new LongAdder();
+  private final LongAdder invalidated = new LongAdder();
+
+  public CachingHttpTransport(JdkHttpTransport delegate, long maxBytes, long maxEntryBytes,
+      MeterRegistry registry) {
+    this.delegate = delegate;
+    this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+    this.cache = Caffeine.newBuilder()
+        .maximumWeight(maxBytes)
+        .<Key, Entry>weigher((key, entry) -> entry.body.length + key.url.length())
+        .build();
+    registerMetrics(registry);
+  }
+
+  @Override
+  public boolean supportsMethod(String method) throws IOException {
+    return delegate.supportsMethod(method);
+  }
+
+  @Override
+  protected LowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+    return new Request(method, url, delegate.buildRequest(method, url));
+  }
+
+  @Override
+  public void shutdown() throws IOException {
+    cache.invalidateAll();
+    delegate.shutdown();
+  }
+
+  private void registerMetrics(MeterRegistry registry) {
+    // 304 answered from the cache, changed since cached, or nothing cached yet
+    registerOutcome(registry, "revalidated", revalidated);
+    registerOutcome(registry, "modified", modified);
+    registerOutcome(registry, "miss", missed);
+    FunctionCounter.builder("scholar.google.cache.invalidations", invalidated, LongAdder::sum)
+        .description("Cached responses dropped after a local mutation")
+        .register(registry);
+    Gauge.builder("scholar.google.cache.hit.ratio", this, CachingHttpTransport::hitRatio)
+        .register(registry);
+    Gauge.builder("scholar.google.cache.size", cache, c -> c.policy().eviction()
+            .map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+        .baseUnit("bytes")
+        .register(registry);
+  }
+
+  private static void registerOutcome(MeterRegistry registry, String outcome, LongAdder counter) {
+    FunctionCounter.builder("scholar.google.cache.requests", counter, LongAdder::sum)
+        .tag("outcome", outcome)
+        .register(registry);
+  }
+
+  private double hitRatio() {
+    long hits = revalidated.sum();
+    long total = hits + modified.sum() + missed.sum();
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  private void invalidate(URI uri) {
+    String path = uri.getPath() == null ? "/" : uri.getPath();
+    // freeBusy is a read sent as POST
+    if (path.endsWith("/freeBusy")) {
+      return;
+    }
+    // Uploads and batches mutate the resources of the API they wrap
+    for (String wrapper : List.of("/upload/", "/batch/")) {
+      if (path.startsWith(wrapper)) {
+        path = path.substring(wrapper.length() - 1);
+      }
+    }
+    String scope = uri.getHost() + path.substring(0, Math.max(path.lastIndexOf('/'), 0));
+    List<Key> stale = new ArrayList<>();
+    cache.asMap().forEach((key, entry) -> {
+      if (entry.scope.startsWith(scope)) {
+        stale.add(key);
+      }
+    });
+    cache.invalidateAll(stale);
+    invalidated.add(stale.size());
+  }
+
+  private record Key(String principal, String url) {}
+
+  private record Entry(String scope, String etag, String contentType, String contentEncoding,
+                       List<String> headerNames, List<String> headerValues, byte[] body) {}
+
+  private final class Request extends LowLevelHttpRequest {
+
+    private final String method;
+    private final String url;
+    private final LowLevelHttpRequest target;
+    private String principal;
+    private String authorization;
+    private boolean conditional;
+
+    private Request(String method, String url, LowLevelHttpRequest target) {
+      this.method = method;
+      this.url = url;
+      this.target = target;
+    }
+
+    @Override
+    public void addHeader(String name, String value) throws IOException {
+      String lower = name.toLowerCase(Locale.ROOT);
+      if (lower.equals(PRINCIPAL_HEADER.toLowerCase(Locale.ROOT))) {
+        principal = value;
+        return;
+      }
+      if (lower.equals("authorization")) {
+        authorization = value;
+      } else if (lower.startsWith("if-")) {
+        conditional = true;
+      }
+      target.addHeader(name, value);
+    }
+
+    @Override
+    public void setTimeout(int connectTimeout, int readTimeout) throws IOException {
+      target.setTimeout(connectTimeout, readTimeout);
+    }
+
+    @Override
+    public void setWriteTimeout(int writeTimeout) throws IOException {
+      target.setWriteTimeout(writeTimeout);
+    }
+
+    @Override
+    public LowLevelHttpResponse execute() throws IOException {
+      target.setContentLength(getContentLength());
+      target.setContentEncoding(getContentEncoding());
+      target.setContentType(getContentType());
+      target.setStreamingContent(getStreamingContent());
+      if (!"GET".equals(method)) {
+        try {
+          return target.execute();
+        } finally {
+          invalidate(URI.create(url));
+        }
+      }
+      if (conditional) {
+        return target.execute();
+      }
+      Key key = new Key(principal != null ? principal : String.valueOf(authorization), url);
+      Entry cached = cache.getIfPresent(key);
+      if (cached != null) {
+        target.addHeader("If-None-Match", cached.etag);
+      }
+      LowLevelHttpResponse response = target.execute();
+      if (cached != null && response.getStatusCode() == 304) {
+        response.disconnect();
+        revalidated.increment();
+        return new Replay(cached);
+      }
+      (cached != null ? modified : missed).increment();
+      return response.getStatusCode() == 200 ? store(key, response) : response;
+    }
+
+    private LowLevelHttpResponse store(Key key, LowLevelHttpResponse response) throws IOException {
+      String etag = null;
+      List<String> names = new ArrayList<>();
+      List<String> values = new ArrayList<>();
+      for (int i = 0; i < response.getHeaderCount(); i++) {
+        names.add(response.getHeaderName(i));
+        values.add(response.getHeaderValue(i));
+        if (ETAG.equalsIgnoreCase(response.getHeaderName(i))) {
+          etag = response.getHeaderValue(i);
+        }
+      }
+      long length = response.getContentLength();
+      if (etag == null || length > maxEntryBytes) {
+        return response;
+      }
+      InputStream content = response.getContent();
+      byte[] head = content == null ? new byte[0] : content.readNBytes((int) maxEntryBytes + 1);
+      if (head.length > maxEntryBytes) {
+        // Too large after all: hand back what was read followed by the rest of the stream
+        return new Buffered(response, new SequenceInputStream(new ByteArrayInputStream(head),
+            content));
+      }
+      if (content != null) {
+        content.close();
+      }
+      URI uri = URI.create(url);
+      Entry entry = new Entry(uri.getHost() + uri.getPath(), etag, response.getContentType(),
+          response.getContentEncoding(), List.copyOf(names), List.copyOf(values), head);
+      cache.put(key, entry);
+      return new Replay(entry);
+    }
+  }
+
+  /**
+   * A stored response played back as a {@code 200}.
+   */
+  private static final class Replay extends LowLevelHttpResponse {
+
+    private final Entry entry;
+
+    private Replay(Entry entry) {
+      this.entry = entry;
+    }
+
+    @Override
+    public InputStream getContent() {
+      return new ByteArrayInputStream(entry.body);
+    }
+
+    @Override
+    public String getContentEncoding() {
+      return entry.contentEncoding;
+    }
+
+    @Override
+    public long getContentLength() {
+      return entry.body.length;
+    }
+
+    @Override
+    public String getContentType() {
+      return entry.contentType;
+    }
+
+    @Override
+    public String getStatusLine() {
+      return "HTTP/1.1 200";
+    }
+
+    @Override
+    public int getStatusCode() {
+      return 200;
+    }
+
+    @Override
+    public String getReasonPhrase() {
+      return "OK";
+    }
+
+    @Override
+    public int getHeaderCount() {
+      return entry.headerNames.size();
+    }
+
+    @Override
+    public String getHeaderName(int index) {
+      return entry.headerNames.get(index);
+    }
+
+    @Override
+    public String getHeaderValue(int index) {
+      return entry.headerValues.get(index);
+    }
+  }
+
+  /**
+   * The original response with its partly consumed body replaced.
+   */
+  private static final class Buffered extends LowLevelHttpResponse {
+
+    private final LowLevelHttpResponse response;
+    private final InputStream content;
+
+    private Buffered(LowLevelHttpResponse response, InputStream content) {
+      this.response = response;
+      this.content = content;
+    }
+
+    @Override
+    public InputStream getContent() {
+      return content;
+    }
+
+    @Override
+    public String getContentEncoding() throws IOException {
+      return response.getContentEncoding();
+    }
+
+    @Override
+    public long getContentLength() throws IOException {
+      return response.getContentLength();
+    }
+
+    @Override
+    public String getContentType() throws IOException {
+      return response.getContentType();
+    }
+
+    @Override
+    public String getStatusLine() throws IOException {
+      return response.getStatusLine();
+    }
+
+    @Override
+    public int getStatusCode() throws IOException {
+      return response.getStatusCode();
+    }
+
+    @Override
+    public String getReasonPhrase() throws IOException {
+      return response.getReasonPhrase();
+    }
+
+    @Override
+    public int getHeaderCount() throws IOException {
+      return response.getHeaderCount();
+    }
+
+    @Override
+    public String getHeaderName(int index) throws IOException {
+      return response.getHeaderName(index);
+    }
+
+    @Override
+    public String getHeaderValue(int index) throws IOException {
+      return response.getHeaderValue(index);
+    }
+
+    @Override
+    public void disconnect() throws IOException {
+      content.close();
+    }
+  }
+}
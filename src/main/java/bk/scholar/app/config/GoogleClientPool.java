@@ -0,0 +1,132 @@
+package bk.scholar.app.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.api.client.auth.oauth2.Credential;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.drive.Drive;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Calendar and Drive clients per tenant, all sharing one transport. Only recently used tenants
+ * are kept (at most {@code maxActive}, each dropped after {@code idleTimeout} without a call),
+ * so memory follows the active tenants rather than every account with a stored token. A
+ * tenant's credential is loaded on a virtual thread the first time it is asked for; callers of
+ * the same tenant wait on that one load.
+ */
+public class GoogleClientPool {
+
+  private static final Logger log = LoggerFactory.getLogger(GoogleClientPool.class);
+  // Refresh the access token once it has less than this many seconds left
+  private static final long REFRESH_AHEAD_SECONDS = 300;
+  private static final Executor LOADER = task -> Thread.ofVirtual().name("google-auth").start(task);
+  private final ClientFactory factory;
+  private final AsyncCache<String, Clients> clients;
+
+  public GoogleClientPool(ClientFactory factory, int maxActive, Duration idleTimeout,
+      MeterRegistry registry) {
+    this.factory = factory;
+    this.clients = Caffeine.newBuilder()
+        .maximumSize(maxActive)
+        .expireAfterAccess(idleTimeout)
+        .<String, Clients>removalListener((tenant, removed, cause) -> {
+          if (cause.wasEvicted()) {
+            log.info("Google tenant released | tenant: {}, cause: {}", tenant, cause);
+          }
+        })
+        .buildAsync();
+    Gauge.builder("scholar.google.tenants.active", clients,
+            cache -> cache.synchronous().estimatedSize())
+        .description("Tenants with Google clients in memory")
+        .register(registry);
+  }
+
+  public Calendar calendar(String tenant) {
+    return clients(tenant).calendar();
+  }
+
+  public Drive drive(String tenant) {
+    return clients(tenant).drive();
+  }
+
+  /**
+   * Starts loading the tenant's credential in the background without waiting for it.
+   */
+  public void warm(String tenant) {
+    load(tenant);
+  }
+
+  /**
+   * Refreshes access tokens ahead of expiry, tenant by tenant, so no tool call pays for the
+   * refresh round trip. Tenants that were released are refreshed on their next use instead.
+   */
+  @Scheduled(initialDelayString = "${scholar.google.token-check-interval:PT1M}",
+      fixedDelayString = "${scholar.google.token-check-interval:PT1M}")
+  public void refreshTokensAheadOfExpiry() {
+    for (CompletableFuture<Clients> loaded : clients.asMap().values()) {
+      if (loaded.isDone() && !loaded.isCompletedExceptionally()) {
+        refresh(loaded.join());
+      }
+    }
+  }
+
+  private void refresh(Clients current) {
+    Long expiresIn = current.credential().getExpiresInSeconds();
+    if (expiresIn != null && expiresIn > REFRESH_AHEAD_SECONDS) {
+      return;
+    }
+    try {
+      if (current.credential().refreshToken()) {
+        log.info("Google access token refreshed | tenant: {}, expiresIn: {}s", current.tenant(),
+            current.credential().getExpiresInSeconds());
+      } else {
+        log.warn("Google access token could not be refreshed | tenant: {}", current.tenant());
+      }
+    } catch (IOException e) {
+      log.warn("Google access token refresh failed | tenant: {}", current.tenant(), e);
+    }
+  }
+
+  private Clients clients(String tenant) {
+    try {
+      return load(tenant).join();
+    } catch (CompletionException e) {
+      throw new RuntimeException("Google credential is not available for tenant " + tenant,
+          e.getCause());
+    }
+  }
+
+  // A failed load is not kept, so the next call tries again
+  private CompletableFuture<Clients> load(String tenant) {
+    return clients.get(tenant, (key, executor) -> CompletableFuture.supplyAsync(() -> {
+      long started = System.nanoTime();
+      try {
+        Clients created = factory.create(key);
+        log.info("Google credential ready in {} ms | tenant: {}",
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), key);
+        return created;
+      } catch (Exception e) {
+        log.error("Google authorization failed | tenant: {}", key, e);
+        throw new CompletionException(e);
+      }
+    }, LOADER));
+  }
+
+  public record Clients(String tenant, Credential credential, Calendar calendar, Drive drive) {}
+
+  @FunctionalInterface
+  public interface ClientFactory {
+
+    Clients create(String tenant) throws Exception;
+  }
+}
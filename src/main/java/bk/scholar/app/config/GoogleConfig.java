@@ -4,23 +4,36 @@ import com.google.api.client.auth.oauth2.Credential;
 import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
 import com.google.api.client.googleapis.auth.oauth2.GoogleClientSecrets;
 import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
-import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpBackOffIOExceptionHandler;
+import com.google.api.client.http.HttpBackOffUnsuccessfulResponseHandler;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpTransport;
 import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.client.util.ExponentialBackOff;
 import com.google.api.client.util.store.FileDataStoreFactory;
 import com.google.api.services.calendar.Calendar;
 import com.google.api.services.drive.Drive;
+import io.micrometer.core.instrument.MeterRegistry;
+import bk.scholar.app.config.GoogleClientPool.Clients;
+import jakarta.annotation.PreDestroy;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Properties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Scope;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Component;
@@ -39,21 +52,48 @@ public class GoogleConfig {
       com.google.api.services.drive.DriveScopes.DRIVE);
   public static final String CREDENTIALS_PATHNAME = "credentialsPathname";
   public static final String TOKEN_PATHNAME = "tokenPathname";
-  private final NetHttpTransport httpTransport;
+  // A stored token this close to expiry without a refresh token is as good as missing
+  private static final long MIN_USABLE_SECONDS = 60;
+  public static final String HTTP_TRANSPORT = "httpTransport";
+  public static final String CONNECT_TIMEOUT_MILLIS = "connectTimeoutMillis";
+  public static final String READ_TIMEOUT_MILLIS = "readTimeoutMillis";
+  private final HttpTransport httpTransport;
   private final Properties properties;
-  private final Credential credential;
-  private final Calendar calendarService;
-  private final Drive driveService;
+  private final int connectTimeoutMillis;
+  private final int readTimeoutMillis;
+  private final MeterRegistry meterRegistry;
+  private final boolean authorizeOnStartup;
+  private final boolean authorizeNewTenants;
+  private final Duration uploadInitialBackoff;
+  private final Duration uploadMaxBackoff;
+  private final Duration uploadMaxElapsed;
+  private GoogleAuthorizationCodeFlow flow;
 
-  public GoogleConfig(ResourceLoader resourceLoader, PathResolver pathResolver) {
+  public GoogleConfig(ResourceLoader resourceLoader, PathResolver pathResolver,
+      MeterRegistry meterRegistry,
+      @Value("${scholar.google.authorize-on-startup:true}") boolean authorizeOnStartup,
+      @Value("${scholar.google.tenants.authorize-interactively:false}") boolean authorizeNewTenants,
+      @Value("${scholar.google.response-cache.max-bytes:33554432}") long cacheMaxBytes,
+      @Value("${scholar.google.response-cache.max-entry-bytes:1048576}") long cacheMaxEntryBytes,
+      @Value("${scholar.google.retry.initial-backoff:PT0.5S}") Duration uploadInitialBackoff,
+      @Value("${scholar.google.retry.max-backoff:PT16S}") Duration uploadMaxBackoff,
+      @Value("${scholar.google.call-deadline:PT60S}") Duration uploadMaxElapsed) {
     try {
       this.resourceLoader = resourceLoader;
       this.pathResolver = pathResolver;
-      this.httpTransport = GoogleNetHttpTransport.newTrustedTransport();
+      this.meterRegistry = meterRegistry;
+      this.authorizeOnStartup = authorizeOnStartup;
+      this.authorizeNewTenants = authorizeNewTenants;
+      this.uploadInitialBackoff = uploadInitialBackoff;
+      this.uploadMaxBackoff = uploadMaxBackoff;
+      this.uploadMaxElapsed = uploadMaxElapsed;
       this.properties = pathResolver.loadGoogleToolsProperties();
-      this.credential = this.getCredentials();
-      this.calendarService = this.buildCalendarService();
-      this.driveService = this.buildDriveService();
+      this.connectTimeoutMillis = Integer.parseInt(
+          properties.getProperty(CONNECT_TIMEOUT_MILLIS, "10000"));
+      this.readTimeoutMillis = Integer.parseInt(
+          properties.getProperty(READ_TIMEOUT_MILLIS, "30000"));
+      this.httpTransport = this.buildHttpTransport(meterRegistry, cacheMaxBytes,
+          cacheMaxEntryBytes);
     } catch (GeneralSecurityException e) {
       throw new RuntimeException(e);
     } catch (IOException e) {
@@ -64,11 +104,36 @@ public class GoogleConfig {
   }
 
   /**
+   * The tenant's stored credential, keyed by tenant id in the token directory. Only the default
+   * tenant (or any tenant, with {@code scholar.google.tenants.authorize-interactively}) falls
+   * back to the browser consent flow when nothing usable is stored.
    *
    * @return com.google.api.client.auth.oauth2.Credential credentialObject
    * @throws Exception
    */
-  private Credential getCredentials() throws Exception {
+  private Credential getCredentials(String tenant) throws Exception {
+    GoogleAuthorizationCodeFlow authorizationFlow = this.authorizationFlow();
+    Credential stored = authorizationFlow.loadCredential(tenant);
+    if (stored != null && (stored.getRefreshToken() != null || stored.getExpiresInSeconds() == null
+        || stored.getExpiresInSeconds() > MIN_USABLE_SECONDS)) {
+      return stored;
+    }
+    if (!GoogleTenant.DEFAULT.equals(tenant) && !authorizeNewTenants) {
+      throw new IllegalStateException("No stored Google credential for tenant " + tenant);
+    }
+    return new com.google.api.client.extensions.java6.auth.oauth2.AuthorizationCodeInstalledApp(
+        authorizationFlow,
+        new com.google.api.client.extensions.jetty.auth.oauth2.LocalServerReceiver()).authorize(
+        tenant);
+  }
+
+  /**
+   * One authorization flow, and so one token store, for all tenants.
+   */
+  private synchronized GoogleAuthorizationCodeFlow authorizationFlow() {
+    if (flow != null) {
+      return flow;
+    }
     try {
       // Resolve credentials file from classpath
       String credentialsPath = properties.getProperty(CREDENTIALS_PATHNAME);
@@ -87,28 +152,96 @@ public class GoogleConfig {
       File tokenDirectory = pathResolver.getTokenDirectory(tokenPath);
       log.info("tokenDirectory : {}", tokenDirectory.getAbsolutePath());
 
-      GoogleAuthorizationCodeFlow flow = new GoogleAuthorizationCodeFlow.Builder(
+      flow = new GoogleAuthorizationCodeFlow.Builder(
           this.httpTransport, JSON_FACTORY, clientSecrets, SCOPES)
           .setDataStoreFactory(new FileDataStoreFactory(tokenDirectory))
           .setAccessType("offline")
           .build();
-
-      return new com.google.api.client.extensions.java6.auth.oauth2.AuthorizationCodeInstalledApp(
-          flow,
-          new com.google.api.client.extensions.jetty.auth.oauth2.LocalServerReceiver()).authorize(
-          "user");
+      return flow;
 
     } catch (Exception e) {
       throw new RuntimeException("Failed to create Google Authorization Flow", e);
     }
   }
 
+  /**
+   * One transport for the OAuth flow, Calendar and Drive. "jdk" (default) is a pooled
+   * java.net.http client with HTTP/2, behind the conditional-GET response cache unless its size
+   * is 0; "net" is the stock HttpURLConnection transport.
+   *
+   * @return com.google.api.client.http.HttpTransport sharedTransport
+   */
+  private HttpTransport buildHttpTransport(MeterRegistry meterRegistry, long cacheMaxBytes,
+      long cacheMaxEntryBytes) throws GeneralSecurityException, IOException {
+    String type = properties.getProperty(HTTP_TRANSPORT, "jdk");
+    log.info("Google http transport : {}, connectTimeout: {} ms, readTimeout: {} ms, cache: {} bytes",
+        type, connectTimeoutMillis, readTimeoutMillis, cacheMaxBytes);
+    return switch (type) {
+      case "net" -> GoogleNetHttpTransport.newTrustedTransport();
+      case "jdk" -> {
+        JdkHttpTransport transport = new JdkHttpTransport(Duration.ofMillis(connectTimeoutMillis));
+        yield cacheMaxBytes > 0
+            ? new CachingHttpTransport(transport, cacheMaxBytes, cacheMaxEntryBytes, meterRegistry)
+            : transport;
+      }
+      default -> throw new IllegalArgumentException("Unknown " + HTTP_TRANSPORT + ": " + type);
+    };
+  }
+
+  /**
+   * Applies the credential and the shared per-call timeouts to every Calendar and Drive request.
+   */
+  private HttpRequestInitializer requestInitializer(String tenant, Credential authorized) {
+    return request -> {
+      authorized.initialize(request);
+      if (httpTransport instanceof CachingHttpTransport) {
+        request.getHeaders().set(CachingHttpTransport.PRINCIPAL_HEADER, tenant);
+      }
+      request.setConnectTimeout(connectTimeoutMillis);
+      request.setReadTimeout(readTimeoutMillis);
+      if (isResumableUpload(request)) {
+        retryUploadRequest(request, authorized);
+      }
+    };
+  }
+
+  /**
+   * Lets a failed resumable upload request (session start or chunk) back off and retry in place.
+   * The resumable uploader only asks Drive for the acknowledged offset, and resumes from it, when
+   * the request's own handlers agree to retry; without them a 5xx or reset aborts the whole upload.
+   * Both are safe to repeat: a session start creates nothing and a chunk lands at a fixed offset.
+   * Other requests, direct multipart uploads included, are left to {@code GoogleApiExecutor}.
+   */
+  private void retryUploadRequest(HttpRequest request, Credential authorized) {
+    HttpBackOffUnsuccessfulResponseHandler serverErrors =
+        new HttpBackOffUnsuccessfulResponseHandler(uploadBackOff());
+    // Keep the credential's 401 refresh in front of the backoff
+    request.setUnsuccessfulResponseHandler((failed, response, supportsRetry) ->
+        authorized.handleResponse(failed, response, supportsRetry)
+            || serverErrors.handleResponse(failed, response, supportsRetry));
+    request.setIOExceptionHandler(new HttpBackOffIOExceptionHandler(uploadBackOff()));
+  }
+
+  private ExponentialBackOff uploadBackOff() {
+    return new ExponentialBackOff.Builder()
+        .setInitialIntervalMillis((int) uploadInitialBackoff.toMillis())
+        .setMaxIntervalMillis((int) uploadMaxBackoff.toMillis())
+        .setMaxElapsedTimeMillis((int) uploadMaxElapsed.toMillis())
+        .build();
+  }
+
+  // Session starts ask for uploadType=resumable; chunks go to the session URI, which has upload_id
+  private static boolean isResumableUpload(HttpRequest request) {
+    GenericUrl url = request.getUrl();
+    return "resumable".equals(url.getFirst("uploadType")) || url.getFirst("upload_id") != null;
+  }
+
   /**
    *
    * @return object of com.google.api.services.calendar.Calendar;
    */
-  private Calendar buildCalendarService() {
-    return new Calendar.Builder(this.httpTransport, JSON_FACTORY, this.credential)
+  private Calendar buildCalendarService(HttpRequestInitializer initializer) {
+    return new Calendar.Builder(this.httpTransport, JSON_FACTORY, initializer)
         .setApplicationName(APPLICATION_NAME).build();
   }
 
@@ -116,18 +249,60 @@ public class GoogleConfig {
    *
    * @return object of com.google.api.services.drive.Drive
    */
-  private Drive buildDriveService() {
-    return new Drive.Builder(httpTransport, JSON_FACTORY, this.credential)
+  private Drive buildDriveService(HttpRequestInitializer initializer) {
+    return new Drive.Builder(httpTransport, JSON_FACTORY, initializer)
         .setApplicationName(APPLICATION_NAME).build();
   }
 
+  private Clients buildClients(String tenant) throws Exception {
+    Credential authorized = this.getCredentials(tenant);
+    HttpRequestInitializer initializer = this.requestInitializer(tenant, authorized);
+    return new Clients(tenant, authorized, this.buildCalendarService(initializer),
+        this.buildDriveService(initializer));
+  }
+
+  @PreDestroy
+  public void shutdownTransport() throws IOException {
+    httpTransport.shutdown();
+  }
+
+  /**
+   * The shared transport, for clients built elsewhere. Shut down by {@link #shutdownTransport()}.
+   */
+  @Bean(destroyMethod = "")
+  public HttpTransport googleHttpTransport() {
+    return httpTransport;
+  }
+
+  @Bean
+  public GoogleClientPool googleClientPool(
+      @Value("${scholar.google.tenants.max-active:32}") int maxActive,
+      @Value("${scholar.google.tenants.idle-timeout:PT30M}") Duration idleTimeout) {
+    GoogleClientPool pool = new GoogleClientPool(this::buildClients, maxActive, idleTimeout,
+        meterRegistry);
+    // Authorize in the background so context startup (and the MCP handshake) never waits on
+    // OAuth; the first call for the tenant joins the same load
+    if (authorizeOnStartup) {
+      pool.warm(GoogleTenant.DEFAULT);
+    }
+    return pool;
+  }
+
+  /**
+   * The Drive client of the tenant bound to the calling thread; fetch it per call.
+   */
   @Bean
-  public Drive gDrive() {
-    return this.driveService;
+  @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+  public Drive gDrive(GoogleClientPool googleClientPool) {
+    return googleClientPool.drive(GoogleTenant.current());
   }
 
+  /**
+   * The Calendar client of the tenant bound to the calling thread; fetch it per call.
+   */
   @Bean
-  public Calendar gCalendar() {
-    return this.calendarService;
+  @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+  public Calendar gCalendar(GoogleClientPool googleClientPool) {
+    return googleClientPool.calendar(GoogleTenant.current());
   }
 }
@@ -0,0 +1,67 @@
+package bk.scholar.app.config;
+
+import java.util.concurrent.Callable;
+import java.util.regex.Pattern;
+
+/**
+ * Google account the current thread acts for. Tool calls bind it for their duration; anything
+ * running outside a tool call (scheduled syncs, startup) acts for {@link #DEFAULT}.
+ */
+public final class GoogleTenant {
+
+  /**
+   * The account authorized on startup; also the key its token has always been stored under.
+   */
+  public static final String DEFAULT = "user";
+  private static final Pattern VALID = Pattern.compile("[A-Za-z0-9._@+-]{1,128}");
+  private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+  private GoogleTenant() {
+  }
+
+  public static <T> T callAs(String tenant, Callable<T> call) throws Exception {
+    String previous = CURRENT.get();
+    CURRENT.set(validate(tenant));
+    try {
+      return call.call();
+    } finally {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    }
+  }
+
+  /**
+   * Carries the current tenant over to a task that will run on another thread.
+   */
+  public static <T> Callable<T> bind(Callable<T> task) {
+    String tenant = current();
+    return () -> callAs(tenant, task);
+  }
+
+  public static String current() {
+    String tenant = CURRENT.get();
+    return tenant == null ? DEFAULT : tenant;
+  }
+
+  public static boolean isDefault() {
+    return DEFAULT.equals(current());
+  }
+
+  /**
+   * @return the tenant id, or {@link #DEFAULT} when blank
+   * @throws IllegalArgumentException when it is not a plausible account key
+   */
+  public static String validate(String tenant) {
+    if (tenant == null || tenant.isBlank()) {
+      return DEFAULT;
+    }
+    String trimmed = tenant.trim();
+    if (!VALID.matcher(trimmed).matches()) {
+      throw new IllegalArgumentException("Invalid tenant: " + tenant);
+    }
+    return trimmed;
+  }
+}
@@ -0,0 +1,315 @@
+package bk.scholar.app.config;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.util.StreamingContent;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Google {@link HttpTransport} backed by one shared {@link HttpClient}: pooled keep-alive
+ * connections, HTTP/2 (multiplexed over a single connection per host) where the server supports
+ * it, and real {@code PATCH} instead of the method-override header. The read timeout bounds the
+ * wait for the response headers and, as with a socket read timeout, each wait for body bytes.
+ * <p>
+ * Request content is buffered in memory before sending, because the Google client writes it to
+ * an {@code OutputStream} while the JDK client pulls it from a publisher. That is at most one
+ * upload chunk: media above the resumable threshold goes up in chunks of
+ * {@code scholar.drive.upload.chunk-size}, and other bodies are small JSON.
+ */
+public class JdkHttpTransport extends HttpTransport {
+
+  // Headers the JDK client manages itself and refuses to accept from callers
+  private static final Set<String> RESTRICTED_HEADERS = Set.of(
+      "connection", "content-length", "expect", "host", "upgrade");
+  // How often open response bodies are checked for a read stalled past its timeout
+  private static final long WATCHDOG_PERIOD_MILLIS = 250;
+  private final HttpClient client;
+  private final Set<TimedInputStream> openBodies = ConcurrentHashMap.newKeySet();
+  private final ScheduledExecutorService watchdog;
+
+  public JdkHttpTransport(Duration connectTimeout) {
+    this.client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .connectTimeout(connectTimeout)
+        .followRedirects(HttpClient.Redirect.NEVER)
+        .build();
+    this.watchdog = Executors.newSingleThreadScheduledExecutor(task -> {
+      Thread thread = new Thread(task, "google-read-timeout");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.watchdog.scheduleWithFixedDelay(this::expireStalledReads, WATCHDOG_PERIOD_MILLIS,
+        WATCHDOG_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public boolean supportsMethod(String method) {
+    return true;
+  }
+
+  @Override
+  protected LowLevelHttpRequest buildRequest(String method, String url) {
+    return new Request(method, url);
+  }
+
+  @Override
+  public void shutdown() {
+    client.close();
+    watchdog.shutdownNow();
+  }
+
+  private void expireStalledReads() {
+    long now = System.nanoTime();
+    for (TimedInputStream body : openBodies) {
+      body.expireIfStalled(now);
+    }
+  }
+
+  private final class Request extends LowLevelHttpRequest {
+
+    private final HttpRequest.Builder builder;
+    private final String method;
+    private int readTimeout;
+
+    private Request(String method, String url) {
+      this.method = method;
+      this.builder = HttpRequest.newBuilder(URI.create(url));
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+      if (!RESTRICTED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+        builder.header(name, value);
+      }
+    }
+
+    @Override
+    public void setTimeout(int connectTimeout, int readTimeout) {
+      // The connect timeout is fixed on the shared client; this bounds the wait for the response
+      if (readTimeout > 0) {
+        builder.timeout(Duration.ofMillis(readTimeout));
+      }
+      this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public LowLevelHttpResponse execute() throws IOException {
+      StreamingContent content = getStreamingContent();
+      HttpRequest.BodyPublisher body = BodyPublishers.noBody();
+      if (content != null) {
+        // Buffered, see the class comment
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(
+            getContentLength() > 0 ? (int) Math.min(getContentLength(), Integer.MAX_VALUE) : 512);
+        content.writeTo(buffer);
+        body = BodyPublishers.ofByteArray(buffer.toByteArray());
+        if (getContentType() != null) {
+          builder.header("Content-Type", getContentType());
+        }
+        if (getContentEncoding() != null) {
+          builder.header("Content-Encoding", getContentEncoding());
+        }
+      }
+      try {
+        HttpResponse<InputStream> response = client.send(builder.method(method, body).build(),
+            BodyHandlers.ofInputStream());
+        return new Response(response, readTimeout > 0
+            ? new TimedInputStream(response.body(), readTimeout)
+            : response.body());
+      } catch (HttpTimeoutException e) {
+        throw new SocketTimeoutException(e.getMessage());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted during " + method + " request");
+      }
+    }
+  }
+
+  /**
+   * Fails a read that gets no bytes within the timeout. The JDK body stream has no timeout of
+   * its own, so each read records when it started and the transport's watchdog closes a stream
+   * whose read has been blocked too long; the read that was cut short then reports the timeout
+   * rather than an end of stream or a closed-stream error.
+   */
+  private final class TimedInputStream extends FilterInputStream {
+
+    private static final long NOT_READING = Long.MIN_VALUE;
+    private final long timeoutMillis;
+    private final long timeoutNanos;
+    private volatile long readStarted = NOT_READING;
+    private volatile boolean timedOut;
+
+    private TimedInputStream(InputStream body, long timeoutMillis) {
+      super(body);
+      this.timeoutMillis = timeoutMillis;
+      this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+      openBodies.add(this);
+    }
+
+    @Override
+    public int read() throws IOException {
+      startRead();
+      try {
+        return checked(super.read());
+      } catch (IOException e) {
+        throw timedOut ? timeout() : e;
+      } finally {
+        readStarted = NOT_READING;
+      }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      startRead();
+      try {
+        return checked(super.read(b, off, len));
+      } catch (IOException e) {
+        throw timedOut ? timeout() : e;
+      } finally {
+        readStarted = NOT_READING;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      openBodies.remove(this);
+      super.close();
+    }
+
+    private void startRead() throws IOException {
+      if (timedOut) {
+        throw timeout();
+      }
+      readStarted = System.nanoTime();
+    }
+
+    // Runs on the watchdog thread
+    private void expireIfStalled(long now) {
+      long started = readStarted;
+      if (started == NOT_READING || now - started < timeoutNanos) {
+        return;
+      }
+      timedOut = true;
+      openBodies.remove(this);
+      try {
+        in.close();
+      } catch (IOException | RuntimeException ignored) {
+        // Closing is only a way to wake the blocked reader
+      }
+    }
+
+    private int checked(int read) throws IOException {
+      if (timedOut) {
+        throw timeout();
+      }
+      if (read < 0) {
+        openBodies.remove(this);
+      }
+      return read;
+    }
+
+    private SocketTimeoutException timeout() {
+      return new SocketTimeoutException("No response data for " + timeoutMillis + " ms");
+    }
+  }
+
+  private static final class Response extends LowLevelHttpResponse {
+
+    private final HttpResponse<InputStream> response;
+    private final InputStream body;
+    private final List<String> names = new ArrayList<>();
+    private final List<String> values = new ArrayList<>();
+
+    private Response(HttpResponse<InputStream> response, InputStream body) {
+      this.response = response;
+      this.body = body;
+      for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+        if (header.getKey().startsWith(":")) {
+          continue;
+        }
+        for (String value : header.getValue()) {
+          names.add(header.getKey());
+          values.add(value);
+        }
+      }
+    }
+
+    @Override
+    public InputStream getContent() {
+      return body;
+    }
+
+    @Override
+    public String getContentEncoding() {
+      return response.headers().firstValue("Content-Encoding").orElse(null);
+    }
+
+    @Override
+    public long getContentLength() {
+      return response.headers().firstValueAsLong("Content-Length").orElse(-1L);
+    }
+
+    @Override
+    public String getContentType() {
+      return response.headers().firstValue("Content-Type").orElse(null);
+    }
+
+    @Override
+    public String getStatusLine() {
+      String version = response.version() == HttpClient.Version.HTTP_2 ? "HTTP/2" : "HTTP/1.1";
+      return version + " " + response.statusCode();
+    }
+
+    @Override
+    public int getStatusCode() {
+      return response.statusCode();
+    }
+
+    @Override
+    public String getReasonPhrase() {
+      return null;
+    }
+
+    @Override
+    public int getHeaderCount() {
+      return names.size();
+    }
+
+    @Override
+    public String getHeaderName(int index) {
+      return names.get(index);
+    }
+
+    @Override
+    public String getHeaderValue(int index) {
+      return values.get(index);
+    }
+
+    @Override
+    public void disconnect() throws IOException {
+      body.close();
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package bk.scholar.app.config;
+
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the Prometheus exposition text to a local file on a fixed interval. The stdio transport
+ * has no HTTP port to scrape, so this file (or JMX) is how metrics get out of the process.
+ */
+@Component
+@ConditionalOnExpression("!'${scholar.metrics.dump-file:}'.isBlank()")
+public class MetricsFileExporter {
+
+  private static final Logger log = LoggerFactory.getLogger(MetricsFileExporter.class);
+  private final ObjectProvider<PrometheusMeterRegistry> registry;
+  private final Path target;
+
+  // The Prometheus registry is absent when its export is switched off (e.g. in tests)
+  public MetricsFileExporter(ObjectProvider<PrometheusMeterRegistry> registry,
+      @Value("${scholar.metrics.dump-file}") Path target) {
+    this.registry = registry;
+    this.target = target.toAbsolutePath();
+  }
+
+  @Scheduled(initialDelayString = "${scholar.metrics.dump-interval:PT30S}",
+      fixedDelayString = "${scholar.metrics.dump-interval:PT30S}")
+  public void dump() {
+    PrometheusMeterRegistry prometheus = registry.getIfAvailable();
+    if (prometheus == null) {
+      return;
+    }
+    Path temp = null;
+    try {
+      Path parent = target.getParent();
+      Files.createDirectories(parent);
+      // Write next to the target and swap it in, so readers never see a half-written file
+      temp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+      Files.writeString(temp, prometheus.scrape(), StandardCharsets.UTF_8);
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      log.warn("Could not write metrics to {}: {}", target, e.getMessage());
+    } finally {
+      // Gone after a successful move; otherwise don't leave one behind on every interval
+      deleteQuietly(temp);
+    }
+  }
+
+  private static void deleteQuietly(Path temp) {
+    if (temp == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(temp);
+    } catch (IOException e) {
+      log.debug("Could not delete {}: {}", temp, e.getMessage());
+    }
+  }
+}
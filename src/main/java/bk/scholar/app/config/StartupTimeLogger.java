@@ -0,0 +1,25 @@
+package bk.scholar.app.config;
+
+import java.lang.management.ManagementFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs how long the server took to become ready, both for the Spring context alone and since the
+ * JVM was launched.
+ */
+@Component
+public class StartupTimeLogger {
+
+  private static final Logger log = LoggerFactory.getLogger(StartupTimeLogger.class);
+
+  @EventListener
+  public void onReady(ApplicationReadyEvent event) {
+    log.info("Scholar ready | context: {} ms, since JVM start: {} ms",
+        event.getTimeTaken() == null ? -1 : event.getTimeTaken().toMillis(),
+        ManagementFactory.getRuntimeMXBean().getUptime());
+  }
+}
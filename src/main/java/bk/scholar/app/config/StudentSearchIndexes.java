@@ -0,0 +1,52 @@
+package bk.scholar.app.config;
+
+import java.sql.DatabaseMetaData;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies {@code student-search.sql} (pg_trgm and the trigram / full-text indexes on student)
+ * once the schema is in place. Skipped on anything other than PostgreSQL.
+ */
+@Component
+public class StudentSearchIndexes {
+
+  private static final Logger log = LoggerFactory.getLogger(StudentSearchIndexes.class);
+  private final DataSource dataSource;
+  private final boolean enabled;
+
+  public StudentSearchIndexes(DataSource dataSource,
+      @Value("${scholar.student-search.create-indexes:true}") boolean enabled) {
+    this.dataSource = dataSource;
+    this.enabled = enabled;
+  }
+
+  @EventListener
+  public void onReady(ApplicationReadyEvent event) {
+    if (!enabled) {
+      return;
+    }
+    try {
+      String database = JdbcUtils.extractDatabaseMetaData(dataSource,
+          DatabaseMetaData::getDatabaseProductName);
+      if (!"PostgreSQL".equals(database)) {
+        log.info("Student search indexes skipped | database: {}", database);
+        return;
+      }
+      long started = System.currentTimeMillis();
+      new ResourceDatabasePopulator(new ClassPathResource("student-search.sql")).execute(dataSource);
+      log.info("Student search indexes ready | elapsed: {} ms", System.currentTimeMillis() - started);
+    } catch (Exception e) {
+      log.warn("Student search indexes not created, search_students will fail or scan | {}",
+          e.getMessage());
+    }
+  }
+}
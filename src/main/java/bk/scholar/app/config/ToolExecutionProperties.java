@@ -0,0 +1,43 @@
+package bk.scholar.app.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Limits applied to every registered tool callback.
+ *
+ * @param maxConcurrency concurrent calls allowed per tool unless overridden in {@code concurrency}
+ * @param acquireTimeout how long a call waits for a free slot before it is rejected
+ * @param callTimeout    how long a running call may take before the caller gets an error
+ * @param concurrency    per-tool overrides keyed by tool name
+ * @param singleFlight   read-only tools whose identical concurrent calls share one execution
+ * @param idempotent     mutating tools that accept an {@code idempotencyKey}
+ * @param idempotencyTtl how long the result of a keyed call is replayed to retries
+ * @param idempotencyMaxResults keyed results kept per tool
+ */
+@ConfigurationProperties(prefix = "scholar.tools")
+public record ToolExecutionProperties(
+    @DefaultValue("16") int maxConcurrency,
+    @DefaultValue("PT30S") Duration acquireTimeout,
+    @DefaultValue("PT2M") Duration callTimeout,
+    Map<String, Integer> concurrency,
+    Set<String> singleFlight,
+    Set<String> idempotent,
+    @DefaultValue("PT10M") Duration idempotencyTtl,
+    @DefaultValue("10000") long idempotencyMaxResults) {
+
+  public int concurrencyFor(String toolName) {
+    return concurrency == null ? maxConcurrency : concurrency.getOrDefault(toolName, maxConcurrency);
+  }
+
+  public boolean isSingleFlight(String toolName) {
+    return singleFlight != null && singleFlight.contains(toolName);
+  }
+
+  public boolean isIdempotent(String toolName) {
+    return idempotent != null && idempotent.contains(toolName);
+  }
+}
@@ -2,49 +2,67 @@ package bk.scholar.app.config;
 
 import com.google.api.client.util.DateTime;
 import com.google.api.services.calendar.model.EventDateTime;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class Utility {
 
-  public static Map<String, EventDateTime> createEventTime(String dateStr) {
+  public static final ZoneId DHAKA = ZoneId.of("Asia/Dhaka");
+  private static final DateTimeFormatter OFFSET_DATE_TIME = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+
+  public record EventTime(EventDateTime start, EventDateTime end) {}
+
+  public static EventTime createEventTime(String dateStr) {
     // Parse the input date (e.g., "2025-10-25")
     LocalDate date = LocalDate.parse(dateStr);
 
-    // Define Dhaka timezone
-    ZoneId dhakaZone = ZoneId.of("Asia/Dhaka");
-
     // Set start time to 2:00 PM on that date in Dhaka
-    ZonedDateTime startTime = date.atTime(14, 0).atZone(dhakaZone);
+    ZonedDateTime startTime = date.atTime(14, 0).atZone(DHAKA);
 
     // Randomly choose duration: 1, 2, 3, or 4 hours
-    int randomHours = new Random().nextInt(4) + 1;
+    int randomHours = ThreadLocalRandom.current().nextInt(1, 5);
     ZonedDateTime endTime = startTime.plusHours(randomHours);
 
-    // Format as ISO 8601 strings with timezone offset (e.g., +06:00)
-    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX");
-    String startStr = startTime.format(formatter);
-    String endStr = endTime.format(formatter);
-
-    // Build EventDateTime objects
-    EventDateTime start = new EventDateTime()
-        .setDateTime(new DateTime(startStr))
-        .setTimeZone("Asia/Dhaka");
-
-    EventDateTime end = new EventDateTime()
-        .setDateTime(new DateTime(endStr))
-        .setTimeZone("Asia/Dhaka");
-
-    // Return as map
-    Map<String, EventDateTime> result = new HashMap<>();
-    result.put("start", start);
-    result.put("end", end);
-    return result;
+    return new EventTime(eventDateTime(startTime), eventDateTime(endTime));
+  }
+
+  /**
+   * Calendar start or end at the given instant, keeping its UTC offset and zone.
+   */
+  public static EventDateTime eventDateTime(ZonedDateTime time) {
+    return new EventDateTime()
+        .setDateTime(new DateTime(time.toInstant().toEpochMilli(),
+            time.getOffset().getTotalSeconds() / 60))
+        .setTimeZone(time.getZone().getId());
+  }
+
+  /**
+   * Formats an instant as an RFC 3339 timestamp with the Dhaka offset (e.g. +06:00).
+   */
+  public static String format(Instant instant) {
+    return OFFSET_DATE_TIME.format(instant.atZone(DHAKA).toOffsetDateTime());
+  }
+
+  /**
+   * Parses either a plain date (yyyy-MM-dd, taken as midnight in Dhaka) or a full RFC 3339
+   * timestamp into a Google {@link DateTime}.
+   *
+   * @return null when the input is null or blank
+   */
+  public static DateTime toDateTime(String value) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    String trimmed = value.trim();
+    if (trimmed.length() == 10) {
+      ZonedDateTime startOfDay = LocalDate.parse(trimmed).atStartOfDay(DHAKA);
+      return new DateTime(startOfDay.toInstant().toEpochMilli());
+    }
+    return DateTime.parseRfc3339(trimmed);
   }
 
 }
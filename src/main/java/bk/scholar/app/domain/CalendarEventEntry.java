@@ -0,0 +1,158 @@
+package bk.scholar.app.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+@Entity
+@Table(name = "calendar_event", indexes = {
+    @Index(name = "calendar_event_window_idx", columnList = "calendar_id, start_time, end_time")})
+@IdClass(CalendarEventEntry.Key.class)
+public class CalendarEventEntry implements Serializable {
+
+  @Id
+  @Column(name = "calendar_id", length = 255, nullable = false)
+  private String calendarId;
+
+  @Id
+  @Column(name = "event_id", length = 1024, nullable = false)
+  private String eventId;
+
+  @Column(name = "summary", columnDefinition = "TEXT")
+  private String summary;
+
+  @Column(name = "etag", length = 255)
+  private String etag;
+
+  @Column(name = "start_time")
+  private Instant startTime;
+
+  @Column(name = "end_time")
+  private Instant endTime;
+
+  @Column(name = "updated")
+  private Instant updated;
+
+  public String getCalendarId() {
+    return calendarId;
+  }
+
+  public void setCalendarId(String calendarId) {
+    this.calendarId = calendarId;
+  }
+
+  public String getEventId() {
+    return eventId;
+  }
+
+  public void setEventId(String eventId) {
+    this.eventId = eventId;
+  }
+
+  public String getSummary() {
+    return summary;
+  }
+
+  public void setSummary(String summary) {
+    this.summary = summary;
+  }
+
+  public String getEtag() {
+    return etag;
+  }
+
+  public void setEtag(String etag) {
+    this.etag = etag;
+  }
+
+  public Instant getStartTime() {
+    return startTime;
+  }
+
+  public void setStartTime(Instant startTime) {
+    this.startTime = startTime;
+  }
+
+  public Instant getEndTime() {
+    return endTime;
+  }
+
+  public void setEndTime(Instant endTime) {
+    this.endTime = endTime;
+  }
+
+  public Instant getUpdated() {
+    return updated;
+  }
+
+  public void setUpdated(Instant updated) {
+    this.updated = updated;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    CalendarEventEntry that = (CalendarEventEntry) o;
+    return Objects.equals(calendarId, that.calendarId) && Objects.equals(eventId, that.eventId);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(calendarId, eventId);
+  }
+
+  @Override
+  public String toString() {
+    return "CalendarEventEntry{" +
+        "calendarId='" + calendarId + '\'' +
+        ", eventId='" + eventId + '\'' +
+        ", summary='" + summary + '\'' +
+        ", startTime=" + startTime +
+        ", endTime=" + endTime +
+        '}';
+  }
+
+  public static class Key implements Serializable {
+
+    private String calendarId;
+    private String eventId;
+
+    public Key() {
+    }
+
+    public Key(String calendarId, String eventId) {
+      this.calendarId = calendarId;
+      this.eventId = eventId;
+    }
+
+    public String getCalendarId() {
+      return calendarId;
+    }
+
+    public String getEventId() {
+      return eventId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return Objects.equals(calendarId, key.calendarId) && Objects.equals(eventId, key.eventId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(calendarId, eventId);
+    }
+  }
+}
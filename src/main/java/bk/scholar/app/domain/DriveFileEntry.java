@@ -0,0 +1,107 @@
+package bk.scholar.app.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.util.Objects;
+
+@Entity
+@Table(name = "drive_file", indexes = {
+    @Index(name = "drive_file_parent_name_idx", columnList = "parent_id, name")})
+public class DriveFileEntry implements Serializable {
+
+  @Id
+  @Column(name = "id", length = 255)
+  private String id;
+
+  @Column(name = "name", length = 1024, nullable = false)
+  private String name;
+
+  @Column(name = "mime_type", length = 255)
+  private String mimeType;
+
+  @Column(name = "parent_id", length = 255)
+  private String parentId;
+
+  @Column(name = "parent_count", nullable = false)
+  private int parentCount;
+
+  @Column(name = "trashed", nullable = false)
+  private boolean trashed;
+
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public String getMimeType() {
+    return mimeType;
+  }
+
+  public void setMimeType(String mimeType) {
+    this.mimeType = mimeType;
+  }
+
+  public String getParentId() {
+    return parentId;
+  }
+
+  public void setParentId(String parentId) {
+    this.parentId = parentId;
+  }
+
+  public int getParentCount() {
+    return parentCount;
+  }
+
+  public void setParentCount(int parentCount) {
+    this.parentCount = parentCount;
+  }
+
+  public boolean isTrashed() {
+    return trashed;
+  }
+
+  public void setTrashed(boolean trashed) {
+    this.trashed = trashed;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    DriveFileEntry that = (DriveFileEntry) o;
+    return Objects.equals(id, that.id);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(id);
+  }
+
+  @Override
+  public String toString() {
+    return "DriveFileEntry{" +
+        "id='" + id + '\'' +
+        ", name='" + name + '\'' +
+        ", mimeType='" + mimeType + '\'' +
+        ", parentId='" + parentId + '\'' +
+        ", trashed=" + trashed +
+        '}';
+  }
+}
@@ -0,0 +1,83 @@
+package bk.scholar.app.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Continuation token of an incremental Google sync (Calendar sync token, Drive changes page
+ * token), keyed by the mirrored resource.
+ */
+@Entity
+@Table(name = "sync_state")
+public class SyncState implements Serializable {
+
+  @Id
+  @Column(name = "resource_key", length = 255)
+  private String resourceKey;
+
+  @Column(name = "sync_token", columnDefinition = "TEXT")
+  private String syncToken;
+
+  @Column(name = "synced_at")
+  private Instant syncedAt;
+
+  public SyncState() {
+  }
+
+  public SyncState(String resourceKey, String syncToken, Instant syncedAt) {
+    this.resourceKey = resourceKey;
+    this.syncToken = syncToken;
+    this.syncedAt = syncedAt;
+  }
+
+  public String getResourceKey() {
+    return resourceKey;
+  }
+
+  public void setResourceKey(String resourceKey) {
+    this.resourceKey = resourceKey;
+  }
+
+  public String getSyncToken() {
+    return syncToken;
+  }
+
+  public void setSyncToken(String syncToken) {
+    this.syncToken = syncToken;
+  }
+
+  public Instant getSyncedAt() {
+    return syncedAt;
+  }
+
+  public void setSyncedAt(Instant syncedAt) {
+    this.syncedAt = syncedAt;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    SyncState syncState = (SyncState) o;
+    return Objects.equals(resourceKey, syncState.resourceKey);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(resourceKey);
+  }
+
+  @Override
+  public String toString() {
+    return "SyncState{" +
+        "resourceKey='" + resourceKey + '\'' +
+        ", syncedAt=" + syncedAt +
+        '}';
+  }
+}
@@ -0,0 +1,16 @@
+package bk.scholar.app.dto;
+
+public record BulkItemResult(String key, String id, String status, String message) {
+
+  public static BulkItemResult ok(String key, String id, String message) {
+    return new BulkItemResult(key, id, "OK", message);
+  }
+
+  public static BulkItemResult failed(String key, String message) {
+    return new BulkItemResult(key, null, "FAILED", message);
+  }
+
+  public static BulkItemResult skipped(String key, String id, String message) {
+    return new BulkItemResult(key, id, "SKIPPED", message);
+  }
+}
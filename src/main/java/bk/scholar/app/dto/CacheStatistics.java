@@ -0,0 +1,3 @@
+package bk.scholar.app.dto;
+
+public record CacheStatistics(long size, long hits, long misses, long evictions, double hitRate) {}
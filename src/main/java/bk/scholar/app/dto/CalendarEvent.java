@@ -1,3 +1,10 @@
 package bk.scholar.app.dto;
 
-public record CalendarEvent(String id, String summary, String etag) {}
+import com.google.api.services.calendar.model.Event;
+
+public record CalendarEvent(String id, String summary, String etag) {
+
+  public static CalendarEvent from(Event event) {
+    return new CalendarEvent(event.getId(), event.getSummary(), event.getEtag());
+  }
+}
@@ -0,0 +1,5 @@
+package bk.scholar.app.dto;
+
+import java.util.List;
+
+public record CalendarEventPage(List<CalendarEvent> events, String nextPageToken) {}
@@ -1,3 +1,11 @@
 package bk.scholar.app.dto;
 
-public record FileItem(String id, String name, String mimeType, String parentCount) {}
+import com.google.api.services.drive.model.File;
+
+public record FileItem(String id, String name, String mimeType, String parentCount) {
+
+  public static FileItem from(File file) {
+    return new FileItem(file.getId(), file.getName(), file.getMimeType(),
+        String.valueOf(file.getParents() != null ? file.getParents().size() : 0));
+  }
+}
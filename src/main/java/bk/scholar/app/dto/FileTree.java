@@ -0,0 +1,5 @@
+package bk.scholar.app.dto;
+
+import java.util.List;
+
+public record FileTree(String rootId, List<FileTreeItem> items, boolean truncated) {}
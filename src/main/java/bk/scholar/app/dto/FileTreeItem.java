@@ -0,0 +1,3 @@
+package bk.scholar.app.dto;
+
+public record FileTreeItem(String id, String name, String mimeType, String parentId, int depth) {}
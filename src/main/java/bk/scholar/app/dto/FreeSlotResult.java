@@ -0,0 +1,10 @@
+package bk.scholar.app.dto;
+
+import java.util.List;
+
+/**
+ * @param slots       free intervals common to every readable calendar, earliest first
+ * @param unavailable calendars whose free/busy could not be read, with the reason; they did not
+ *                    constrain the slots
+ */
+public record FreeSlotResult(List<TimeSlot> slots, List<String> unavailable) {}
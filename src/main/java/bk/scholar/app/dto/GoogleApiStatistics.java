@@ -0,0 +1,4 @@
+package bk.scholar.app.dto;
+
+public record GoogleApiStatistics(long calls, long throttledCalls, long throttledMillis,
+                                  long retries, long failures, long deadlineExceeded) {}
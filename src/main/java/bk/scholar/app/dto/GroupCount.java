@@ -0,0 +1,3 @@
+package bk.scholar.app.dto;
+
+public record GroupCount(String value, Long count) {}
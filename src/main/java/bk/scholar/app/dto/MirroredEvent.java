@@ -0,0 +1,13 @@
+package bk.scholar.app.dto;
+
+import java.time.Instant;
+
+/**
+ * A mirrored event with the start time it is ordered by, which the next page continues after.
+ */
+public record MirroredEvent(String id, String summary, String etag, Instant startTime) {
+
+  public CalendarEvent toCalendarEvent() {
+    return new CalendarEvent(id, summary, etag);
+  }
+}
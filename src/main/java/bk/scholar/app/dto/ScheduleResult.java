@@ -0,0 +1,11 @@
+package bk.scholar.app.dto;
+
+import java.util.List;
+
+/**
+ * @param sessions    one result per booked session, keyed by its start time
+ * @param unscheduled requested sessions that did not fit into the free time
+ * @param unavailable calendars whose free/busy could not be read, with the reason
+ */
+public record ScheduleResult(List<BulkItemResult> sessions, int unscheduled,
+                             List<String> unavailable) {}
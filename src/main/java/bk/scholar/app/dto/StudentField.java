@@ -0,0 +1,68 @@
+package bk.scholar.app.dto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Student columns a caller can select. The name is both the JSON property of
+ * {@link StudentItem} and the {@code Student} entity attribute.
+ */
+public enum StudentField {
+
+  ID("id"),
+  NAME("name"),
+  EMAIL("email"),
+  GENDER("gender"),
+  CITY("city"),
+  METHOD("method");
+
+  private final String attribute;
+
+  StudentField(String attribute) {
+    this.attribute = attribute;
+  }
+
+  public String attribute() {
+    return attribute;
+  }
+
+  public Object valueOf(StudentItem item) {
+    return switch (this) {
+      case ID -> item.id();
+      case NAME -> item.name();
+      case EMAIL -> item.email();
+      case GENDER -> item.gender();
+      case CITY -> item.city();
+      case METHOD -> item.method();
+    };
+  }
+
+  /**
+   * @return the requested fields in request order with id always first (it is the paging
+   * cursor), or null when no selection was made
+   */
+  public static List<StudentField> parse(List<String> names) {
+    if (names == null || names.stream().allMatch(n -> n == null || n.isBlank())) {
+      return null;
+    }
+    List<StudentField> fields = new ArrayList<>();
+    fields.add(ID);
+    for (String name : names) {
+      if (name == null || name.isBlank()) {
+        continue;
+      }
+      String attribute = name.trim().toLowerCase(Locale.ROOT);
+      StudentField field = Arrays.stream(values())
+          .filter(f -> f.attribute.equals(attribute) || ("insertion_" + f.attribute).equals(attribute))
+          .findFirst()
+          .orElseThrow(() -> new IllegalArgumentException(
+              "fields must be any of id, name, email, gender, city, method but was: " + name));
+      if (!fields.contains(field)) {
+        fields.add(field);
+      }
+    }
+    return List.copyOf(fields);
+  }
+}
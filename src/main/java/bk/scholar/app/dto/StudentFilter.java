@@ -0,0 +1,11 @@
+package bk.scholar.app.dto;
+
+/**
+ * Optional filters of a student search; null means no restriction. All values are lower case,
+ * and the like patterns are escaped with a backslash.
+ */
+public record StudentFilter(String city, String gender, String method, String nameLike,
+                            String emailLike) {
+
+  public static final StudentFilter NONE = new StudentFilter(null, null, null, null, null);
+}
@@ -0,0 +1,14 @@
+package bk.scholar.app.dto;
+
+import java.util.List;
+
+/**
+ * @param rowsRead   data rows in the file (header excluded)
+ * @param rowsValid  rows that passed validation and were staged
+ * @param inserted   rows added to the student table
+ * @param duplicates valid rows skipped because the email was repeated in the file or already
+ *                   present
+ * @param errors     the first validation errors, with their line numbers
+ */
+public record StudentImportResult(long rowsRead, long rowsValid, long inserted, long duplicates,
+                                  long elapsedMillis, List<String> errors) {}
@@ -0,0 +1,25 @@
+package bk.scholar.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+/**
+ * Student row as returned by the tools. Fields a caller did not select are null and left out of
+ * the JSON.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StudentItem(Long id, String name, String email, String gender, String city,
+                          String method) {
+
+  public StudentItem only(List<StudentField> fields) {
+    if (fields == null) {
+      return this;
+    }
+    return new StudentItem(id,
+        fields.contains(StudentField.NAME) ? name : null,
+        fields.contains(StudentField.EMAIL) ? email : null,
+        fields.contains(StudentField.GENDER) ? gender : null,
+        fields.contains(StudentField.CITY) ? city : null,
+        fields.contains(StudentField.METHOD) ? method : null);
+  }
+}
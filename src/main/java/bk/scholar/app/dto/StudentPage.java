@@ -0,0 +1,57 @@
+package bk.scholar.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One keyset page of students. In the default format each student is an object in
+ * {@code students}; in the table format the column names are sent once in {@code columns} and
+ * each student is a value array in {@code rows}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StudentPage(List<StudentItem> students, List<String> columns,
+                          List<List<Object>> rows, Long nextCursor) {
+
+  public StudentPage(List<StudentItem> students, Long nextCursor) {
+    this(students, null, null, nextCursor);
+  }
+
+  /**
+   * Builds a page from a query that asked for one row more than {@code pageSize}; that extra row
+   * only tells whether a next page exists.
+   *
+   * @param fields selected fields, null for all
+   */
+  public static StudentPage of(List<StudentItem> fetched, int pageSize, List<StudentField> fields,
+      boolean table) {
+    boolean more = fetched.size() > pageSize;
+    List<StudentItem> page = more ? List.copyOf(fetched.subList(0, pageSize)) : fetched;
+    Long nextCursor = more ? page.get(pageSize - 1).id() : null;
+    if (!table) {
+      return new StudentPage(page, nextCursor);
+    }
+    List<StudentField> columns = fields == null ? Arrays.asList(StudentField.values()) : fields;
+    List<List<Object>> rows = page.stream()
+        .map(item -> columns.stream().map(column -> column.valueOf(item)).toList())
+        .toList();
+    return new StudentPage(null, columns.stream().map(StudentField::attribute).toList(), rows,
+        nextCursor);
+  }
+
+  /**
+   * @return true for "table", false for "objects" or no format
+   */
+  public static boolean isTable(String format) {
+    if (format == null || format.isBlank()) {
+      return false;
+    }
+    return switch (format.trim().toLowerCase(Locale.ROOT)) {
+      case "table" -> true;
+      case "objects" -> false;
+      default -> throw new IllegalArgumentException(
+          "format must be objects or table but was: " + format);
+    };
+  }
+}
@@ -0,0 +1,7 @@
+package bk.scholar.app.dto;
+
+/**
+ * @param start RFC 3339 timestamp, inclusive
+ * @param end   RFC 3339 timestamp, exclusive
+ */
+public record TimeSlot(String start, String end) {}
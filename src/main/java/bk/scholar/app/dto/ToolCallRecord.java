@@ -0,0 +1,15 @@
+package bk.scholar.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One line of the tool-call journal.
+ *
+ * @param time            call start, ISO-8601 UTC
+ * @param arguments       the JSON arguments, cut to a fixed length
+ * @param argumentsSha256 hash of the full arguments, only present when they were cut
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ToolCallRecord(String time, String tool, String outcome, String exception,
+                             double durationMillis, int requestBytes, int responseBytes,
+                             String arguments, String argumentsSha256) {}
@@ -0,0 +1,5 @@
+package bk.scholar.app.dto;
+
+public record ToolLatency(String tool, long calls, long errors, double p50Millis,
+                          double p95Millis, double p99Millis, double maxMillis,
+                          long avgResponseBytes) {}
@@ -0,0 +1,10 @@
+package bk.scholar.app.dto;
+
+import java.util.List;
+
+/**
+ * @param tools   per-tool latency over the calls still in the journal's memory window
+ * @param window  calls the report is based on
+ * @param dropped calls not journaled because the queue was full, since startup
+ */
+public record ToolLatencyReport(List<ToolLatency> tools, long window, long dropped) {}
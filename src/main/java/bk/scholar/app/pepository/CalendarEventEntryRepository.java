@@ -0,0 +1,58 @@
+package bk.scholar.app.pepository;
+
+import bk.scholar.app.domain.CalendarEventEntry;
+import bk.scholar.app.dto.MirroredEvent;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CalendarEventEntryRepository
+    extends JpaRepository<CalendarEventEntry, CalendarEventEntry.Key>, CalendarEventWrites {
+
+  /**
+   * First page of events overlapping [from, to), served by calendar_event_window_idx.
+   */
+  @Query("""
+      select new bk.scholar.app.dto.MirroredEvent(e.eventId, e.summary, e.etag, e.startTime)
+      from CalendarEventEntry e
+      where e.calendarId = :calendarId
+        and e.endTime > :from
+        and e.startTime < :to
+      order by e.startTime asc, e.eventId asc""")
+  List<MirroredEvent> findWindow(@Param("calendarId") String calendarId,
+      @Param("from") Instant from, @Param("to") Instant to, Limit limit);
+
+  /**
+   * Next page of the same window: events ordered after (afterStart, afterId).
+   */
+  @Query("""
+      select new bk.scholar.app.dto.MirroredEvent(e.eventId, e.summary, e.etag, e.startTime)
+      from CalendarEventEntry e
+      where e.calendarId = :calendarId
+        and e.endTime > :from
+        and e.startTime < :to
+        and (e.startTime > :afterStart or (e.startTime = :afterStart and e.eventId > :afterId))
+      order by e.startTime asc, e.eventId asc""")
+  List<MirroredEvent> findWindowAfter(@Param("calendarId") String calendarId,
+      @Param("from") Instant from, @Param("to") Instant to,
+      @Param("afterStart") Instant afterStart, @Param("afterId") String afterId, Limit limit);
+
+  @Modifying
+  @Query("delete from CalendarEventEntry e where e.calendarId = :calendarId")
+  int deleteByCalendarId(@Param("calendarId") String calendarId);
+
+  @Modifying
+  @Query("""
+      delete from CalendarEventEntry e
+      where e.calendarId = :calendarId and e.eventId in :eventIds""")
+  int deleteEvents(@Param("calendarId") String calendarId,
+      @Param("eventIds") Collection<String> eventIds);
+
+}
@@ -0,0 +1,16 @@
+package bk.scholar.app.pepository;
+
+import bk.scholar.app.domain.CalendarEventEntry;
+import java.util.List;
+
+/**
+ * Calendar mirror writes that skip the persistence context.
+ */
+public interface CalendarEventWrites {
+
+  /**
+   * Inserts the entries, or overwrites the stored ones with the same key, in JDBC batches of one
+   * {@code insert ... on conflict} statement. Runs in the caller's transaction.
+   */
+  void upsertAll(List<CalendarEventEntry> entries);
+}
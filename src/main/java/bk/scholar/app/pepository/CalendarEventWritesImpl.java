@@ -0,0 +1,70 @@
+package bk.scholar.app.pepository;
+
+import bk.scholar.app.domain.CalendarEventEntry;
+import jakarta.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+class CalendarEventWritesImpl implements CalendarEventWrites {
+
+  private static final int BATCH_SIZE = 500;
+  private static final String UPSERT = """
+      insert into calendar_event (calendar_id, event_id, summary, etag, start_time, end_time, updated)
+      values (?, ?, ?, ?, ?, ?, ?)
+      on conflict (calendar_id, event_id) do update set
+          summary = excluded.summary,
+          etag = excluded.etag,
+          start_time = excluded.start_time,
+          end_time = excluded.end_time,
+          updated = excluded.updated""";
+  private final EntityManager entityManager;
+
+  CalendarEventWritesImpl(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  @Transactional
+  public void upsertAll(List<CalendarEventEntry> entries) {
+    if (entries.isEmpty()) {
+      return;
+    }
+    entityManager.unwrap(Session.class).doWork(connection -> {
+      try (PreparedStatement statement = connection.prepareStatement(UPSERT)) {
+        int pending = 0;
+        for (CalendarEventEntry entry : entries) {
+          statement.setString(1, entry.getCalendarId());
+          statement.setString(2, entry.getEventId());
+          statement.setString(3, entry.getSummary());
+          statement.setString(4, entry.getEtag());
+          setInstant(statement, 5, entry.getStartTime());
+          setInstant(statement, 6, entry.getEndTime());
+          setInstant(statement, 7, entry.getUpdated());
+          statement.addBatch();
+          if (++pending == BATCH_SIZE) {
+            statement.executeBatch();
+            pending = 0;
+          }
+        }
+        if (pending > 0) {
+          statement.executeBatch();
+        }
+      }
+    });
+  }
+
+  private static void setInstant(PreparedStatement statement, int index, Instant value)
+      throws SQLException {
+    if (value == null) {
+      statement.setNull(index, Types.TIMESTAMP_WITH_TIMEZONE);
+    } else {
+      statement.setObject(index, value.atOffset(ZoneOffset.UTC));
+    }
+  }
+}
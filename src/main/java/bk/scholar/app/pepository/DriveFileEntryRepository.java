@@ -0,0 +1,29 @@
+package bk.scholar.app.pepository;
+
+import bk.scholar.app.domain.DriveFileEntry;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DriveFileEntryRepository extends JpaRepository<DriveFileEntry, String>,
+    DriveFileWrites {
+
+  List<DriveFileEntry> findByParentIdAndTrashedFalseOrderByNameAsc(String parentId);
+
+  Optional<DriveFileEntry> findFirstByParentIdAndNameAndTrashedFalse(String parentId, String name);
+
+  @Modifying
+  @Query("delete from DriveFileEntry")
+  int deleteAllEntries();
+
+  @Modifying
+  @Query("delete from DriveFileEntry f where f.id in :ids")
+  int deleteEntries(@Param("ids") Collection<String> ids);
+
+}
@@ -0,0 +1,16 @@
+package bk.scholar.app.pepository;
+
+import bk.scholar.app.domain.DriveFileEntry;
+import java.util.List;
+
+/**
+ * Drive index writes that skip the persistence context.
+ */
+public interface DriveFileWrites {
+
+  /**
+   * Inserts the entries, or overwrites the stored ones with the same id, in JDBC batches of one
+   * {@code insert ... on conflict} statement. Runs in the caller's transaction.
+   */
+  void upsertAll(List<DriveFileEntry> entries);
+}
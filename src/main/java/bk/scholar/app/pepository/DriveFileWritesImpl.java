@@ -0,0 +1,56 @@
+package bk.scholar.app.pepository;
+
+import bk.scholar.app.domain.DriveFileEntry;
+import jakarta.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.util.List;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+class DriveFileWritesImpl implements DriveFileWrites {
+
+  private static final int BATCH_SIZE = 500;
+  private static final String UPSERT = """
+      insert into drive_file (id, name, mime_type, parent_id, parent_count, trashed)
+      values (?, ?, ?, ?, ?, ?)
+      on conflict (id) do update set
+          name = excluded.name,
+          mime_type = excluded.mime_type,
+          parent_id = excluded.parent_id,
+          parent_count = excluded.parent_count,
+          trashed = excluded.trashed""";
+  private final EntityManager entityManager;
+
+  DriveFileWritesImpl(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  @Transactional
+  public void upsertAll(List<DriveFileEntry> entries) {
+    if (entries.isEmpty()) {
+      return;
+    }
+    entityManager.unwrap(Session.class).doWork(connection -> {
+      try (PreparedStatement statement = connection.prepareStatement(UPSERT)) {
+        int pending = 0;
+        for (DriveFileEntry entry : entries) {
+          statement.setString(1, entry.getId());
+          statement.setString(2, entry.getName());
+          statement.setString(3, entry.getMimeType());
+          statement.setString(4, entry.getParentId());
+          statement.setInt(5, entry.getParentCount());
+          statement.setBoolean(6, entry.isTrashed());
+          statement.addBatch();
+          if (++pending == BATCH_SIZE) {
+            statement.executeBatch();
+            pending = 0;
+          }
+        }
+        if (pending > 0) {
+          statement.executeBatch();
+        }
+      }
+    });
+  }
+}
@@ -0,0 +1,19 @@
+package bk.scholar.app.pepository;
+
+import bk.scholar.app.dto.StudentField;
+import bk.scholar.app.dto.StudentFilter;
+import bk.scholar.app.dto.StudentItem;
+import java.util.List;
+
+/**
+ * Student reads that select only the columns a caller asked for.
+ */
+public interface StudentColumnQueries {
+
+  /**
+   * Keyset page ordered by id. Only {@code fields} (plus id) are selected; the other
+   * {@link StudentItem} components are null.
+   */
+  List<StudentItem> findSelectedAfter(long afterId, StudentFilter filter,
+      List<StudentField> fields, int limit);
+}
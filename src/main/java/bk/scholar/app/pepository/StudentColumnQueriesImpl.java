@@ -0,0 +1,75 @@
+package bk.scholar.app.pepository;
+
+import bk.scholar.app.domain.Student;
+import bk.scholar.app.dto.StudentField;
+import bk.scholar.app.dto.StudentFilter;
+import bk.scholar.app.dto.StudentItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+class StudentColumnQueriesImpl implements StudentColumnQueries {
+
+  private final EntityManager entityManager;
+
+  StudentColumnQueriesImpl(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public List<StudentItem> findSelectedAfter(long afterId, StudentFilter filter,
+      List<StudentField> fields, int limit) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = cb.createTupleQuery();
+    Root<Student> student = query.from(Student.class);
+    query.multiselect(fields.stream()
+        .<Selection<?>>map(
+            field -> student.get(field.attribute()).alias(field.attribute()))
+        .toList());
+
+    List<Predicate> where = new ArrayList<>();
+    where.add(cb.greaterThan(student.get("id"), afterId));
+    equalsIgnoreCase(cb, student, "city", filter.city(), where);
+    equalsIgnoreCase(cb, student, "gender", filter.gender(), where);
+    equalsIgnoreCase(cb, student, "method", filter.method(), where);
+    if (filter.nameLike() != null) {
+      where.add(cb.like(cb.lower(student.get("name")), filter.nameLike(), '\\'));
+    }
+    if (filter.emailLike() != null) {
+      where.add(cb.like(cb.lower(student.get("email")), filter.emailLike(), '\\'));
+    }
+    query.where(where.toArray(Predicate[]::new)).orderBy(cb.asc(student.get("id")));
+
+    return entityManager.createQuery(query)
+        .setMaxResults(limit)
+        .getResultList()
+        .stream()
+        .map(tuple -> new StudentItem(
+            value(tuple, fields, StudentField.ID, Long.class),
+            value(tuple, fields, StudentField.NAME, String.class),
+            value(tuple, fields, StudentField.EMAIL, String.class),
+            value(tuple, fields, StudentField.GENDER, String.class),
+            value(tuple, fields, StudentField.CITY, String.class),
+            value(tuple, fields, StudentField.METHOD, String.class)))
+        .toList();
+  }
+
+  private static void equalsIgnoreCase(CriteriaBuilder cb, Root<Student> student, String attribute,
+      String value, List<Predicate> where) {
+    if (value != null) {
+      where.add(cb.equal(cb.lower(student.get(attribute)), value.toLowerCase(Locale.ROOT)));
+    }
+  }
+
+  private static <T> T value(Tuple tuple, List<StudentField> fields, StudentField field,
+      Class<T> type) {
+    return fields.contains(field) ? tuple.get(field.attribute(), type) : null;
+  }
+}
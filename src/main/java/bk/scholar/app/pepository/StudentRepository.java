@@ -1,11 +1,123 @@
 package bk.scholar.app.pepository;
 
 import bk.scholar.app.domain.Student;
+import bk.scholar.app.dto.GroupCount;
+import bk.scholar.app.dto.StudentItem;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+/**
+ * Filter parameters of the count, group and match queries must already be lower case. They are
+ * compared against {@code lower(column)} without wrapping the parameter, because a null parameter
+ * inside {@code lower()} reaches PostgreSQL untyped and fails as {@code lower(bytea)}.
+ */
 @Repository
-public interface StudentRepository extends JpaRepository<Student, Long> {
+public interface StudentRepository extends JpaRepository<Student, Long>, StudentColumnQueries {
 
-}
+  @Query("""
+      select new bk.scholar.app.dto.StudentItem(s.id, s.name, s.email, s.gender, s.city, s.method)
+      from Student s
+      where s.id = :id""")
+  Optional<StudentItem> findItemById(@Param("id") Long id);
+
+  /**
+   * Keyset page over the student table, read as DTO projections so nothing lands in the
+   * persistence context.
+   */
+  @Query("""
+      select new bk.scholar.app.dto.StudentItem(s.id, s.name, s.email, s.gender, s.city, s.method)
+      from Student s
+      where s.id > :afterId
+      order by s.id asc""")
+  List<StudentItem> findPageAfter(@Param("afterId") long afterId, Limit limit);
+
+  @Query("""
+      select count(s) from Student s
+      where (:city is null or lower(s.city) = :city)
+        and (:gender is null or lower(s.gender) = :gender)
+        and (:method is null or lower(s.method) = :method)""")
+  long countMatching(@Param("city") String city, @Param("gender") String gender,
+      @Param("method") String method);
+
+  @Query("""
+      select new bk.scholar.app.dto.StudentItem(s.id, s.name, s.email, s.gender, s.city, s.method)
+      from Student s
+      where s.id > :afterId
+        and (:city is null or lower(s.city) = :city)
+        and (:gender is null or lower(s.gender) = :gender)
+        and (:method is null or lower(s.method) = :method)
+        and (:nameLike is null or lower(s.name) like :nameLike escape '\\')
+        and (:emailLike is null or lower(s.email) like :emailLike escape '\\')
+      order by s.id asc""")
+  List<StudentItem> findMatchingAfter(@Param("afterId") long afterId, @Param("city") String city,
+      @Param("gender") String gender, @Param("method") String method,
+      @Param("nameLike") String nameLike, @Param("emailLike") String emailLike, Limit limit);
+
+  @Query("""
+      select new bk.scholar.app.dto.GroupCount(s.city, count(s))
+      from Student s
+      where (:gender is null or lower(s.gender) = :gender)
+        and (:method is null or lower(s.method) = :method)
+      group by s.city
+      order by count(s) desc, s.city asc""")
+  List<GroupCount> countByCity(@Param("gender") String gender, @Param("method") String method,
+      Limit limit);
 
+  @Query("""
+      select new bk.scholar.app.dto.GroupCount(s.gender, count(s))
+      from Student s
+      where (:city is null or lower(s.city) = :city)
+        and (:method is null or lower(s.method) = :method)
+      group by s.gender
+      order by count(s) desc, s.gender asc""")
+  List<GroupCount> countByGender(@Param("city") String city, @Param("method") String method,
+      Limit limit);
+
+  @Query("""
+      select new bk.scholar.app.dto.GroupCount(s.method, count(s))
+      from Student s
+      where (:city is null or lower(s.city) = :city)
+        and (:gender is null or lower(s.gender) = :gender)
+      group by s.method
+      order by count(s) desc, s.method asc""")
+  List<GroupCount> countByMethod(@Param("city") String city, @Param("gender") String gender,
+      Limit limit);
+
+  /**
+   * Ranked search over name, email and city. Rows match on prefix full-text terms across the
+   * three columns, or on trigram similarity of name or email so misspellings still hit. Each
+   * predicate is served by a GIN index from {@code student-search.sql}; the expressions here must
+   * match the indexed ones. Only the first {@code candidates} matches are ranked, so a term shared
+   * by a large part of the table does not sort all of it.
+   *
+   * @param text  lower-case search text for the trigram match
+   * @param terms {@code to_tsquery} input, e.g. {@code mike:* & chicago:*}; may be empty
+   */
+  @Query(nativeQuery = true, value = """
+      select c.id, c.name, c.email, c.gender, c.city, c.method
+      from (
+          select cast(s.id as bigint) as id, s.name, s.email, s.gender, s.city,
+              s.insertion_method as method
+          from student s
+          where to_tsvector('simple', s.name || ' ' || s.email || ' ' || s.city)
+                  @@ to_tsquery('simple', :terms)
+             or lower(s.name) % :text
+             or :text <% lower(s.name)
+             or :text <% lower(s.email)
+          limit :candidates) c
+      order by ts_rank(to_tsvector('simple', c.name || ' ' || c.email || ' ' || c.city),
+                  to_tsquery('simple', :terms))
+             + greatest(similarity(lower(c.name), :text),
+                  word_similarity(:text, lower(c.name)),
+                  word_similarity(:text, lower(c.email))) desc,
+          c.id asc
+      limit :limit""")
+  List<StudentItem> search(@Param("text") String text, @Param("terms") String terms,
+      @Param("candidates") int candidates, @Param("limit") int limit);
+
+}
@@ -0,0 +1,10 @@
+package bk.scholar.app.pepository;
+
+import bk.scholar.app.domain.SyncState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SyncStateRepository extends JpaRepository<SyncState, String> {
+
+}
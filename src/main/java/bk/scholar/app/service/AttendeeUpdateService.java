@@ -0,0 +1,232 @@
+package bk.scholar.app.service;
+
+import bk.scholar.app.config.GoogleTenant;
+import bk.scholar.app.dto.BulkItemResult;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventAttendee;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+/**
+ * Adds and removes event attendees with a {@code patch} of the attendees field guarded by
+ * {@code If-Match} on the event etag, so concurrent edits made elsewhere are never overwritten.
+ * <p>
+ * Changes submitted concurrently for the same event are coalesced: the first caller becomes the
+ * leader and applies everything queued behind it in one read and one patch, while the others
+ * wait for their share of the results.
+ */
+@Service
+public class AttendeeUpdateService {
+
+  private static final Logger log = LoggerFactory.getLogger(AttendeeUpdateService.class);
+  private static final int MAX_ATTEMPTS = 3;
+  private static final int MAX_LEADER_ROUNDS = 4;
+  private static final String PATCH_RESPONSE_FIELDS = "id,summary,etag,status,start,end,updated";
+  private final ObjectProvider<Calendar> gCalendar;
+  private final CalendarMirrorService calendarMirror;
+  private final GoogleApiExecutor googleApi;
+  private final ConcurrentMap<String, EventQueue> queues = new ConcurrentHashMap<>();
+
+  public AttendeeUpdateService(ObjectProvider<Calendar> gCalendar,
+      CalendarMirrorService calendarMirror, GoogleApiExecutor googleApi) {
+    this.gCalendar = gCalendar;
+    this.calendarMirror = calendarMirror;
+    this.googleApi = googleApi;
+  }
+
+  public List<BulkItemResult> addAttendees(String calendarId, String eventId, List<String> emails)
+      throws IOException {
+    return submit(calendarId, eventId, new Change(true, emails));
+  }
+
+  public List<BulkItemResult> removeAttendees(String calendarId, String eventId,
+      List<String> emails) throws IOException {
+    return submit(calendarId, eventId, new Change(false, emails));
+  }
+
+  private List<BulkItemResult> submit(String calendarId, String eventId, Change change)
+      throws IOException {
+    // The leader applies every queued change with its own tenant's client
+    String key = GoogleTenant.current() + "/" + calendarId + "/" + eventId;
+    EventQueue queue = queues.computeIfAbsent(key, k -> new EventQueue());
+    boolean leader;
+    synchronized (queue) {
+      queue.pending.add(change);
+      leader = !queue.running;
+      queue.running = true;
+    }
+    if (leader) {
+      drain(calendarId, eventId, key, queue);
+    }
+    try {
+      // A leader that stops early hands the queue to one of the waiting callers
+      while (!change.outcome.isDone()) {
+        CompletableFuture.anyOf(change.outcome, change.leadership).get();
+        if (!change.outcome.isDone()) {
+          drain(calendarId, eventId, key, queue);
+        }
+      }
+      return change.outcome.get();
+    } catch (InterruptedException e) {
+      synchronized (queue) {
+        queue.pending.remove(change);
+        if (change.leadership.isDone()) {
+          handOff(key, queue);
+        }
+      }
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while updating attendees of " + eventId);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException io) {
+        throw io;
+      }
+      throw new IOException("Failed to update attendees of " + eventId, e.getCause());
+    }
+  }
+
+  /**
+   * Applies queued changes for at most {@value #MAX_LEADER_ROUNDS} rounds, so one caller's tool
+   * call does not run for as long as others keep arriving, then hands the queue on.
+   */
+  private void drain(String calendarId, String eventId, String key, EventQueue queue) {
+    for (int round = 0; ; round++) {
+      List<Change> batch;
+      synchronized (queue) {
+        if (queue.pending.isEmpty() || round == MAX_LEADER_ROUNDS) {
+          handOff(key, queue);
+          return;
+        }
+        batch = new ArrayList<>(queue.pending);
+        queue.pending.clear();
+      }
+      try {
+        apply(calendarId, eventId, batch);
+      } catch (HttpResponseException | RuntimeException e) {
+        // Google's answer about the event holds for every change in the batch
+        batch.forEach(change -> change.outcome.completeExceptionally(e));
+      } catch (IOException e) {
+        // Interrupts, the leader's deadline and network errors belong to the leader's call: fail
+        // only its own change and let a waiting caller retry the rest under its own deadline
+        synchronized (queue) {
+          for (Change change : batch) {
+            if (change.caller == Thread.currentThread()) {
+              change.outcome.completeExceptionally(e);
+            }
+          }
+          batch.removeIf(change -> change.outcome.isDone());
+          queue.pending.addAll(0, batch);
+          handOff(key, queue);
+        }
+        return;
+      }
+    }
+  }
+
+  // Caller holds the queue lock
+  private void handOff(String key, EventQueue queue) {
+    if (queue.pending.isEmpty()) {
+      queue.running = false;
+      queues.remove(key, queue);
+    } else {
+      queue.pending.get(0).leadership.complete(null);
+    }
+  }
+
+  private void apply(String calendarId, String eventId, List<Change> batch) throws IOException {
+    for (int attempt = 1; ; attempt++) {
+      Event current = googleApi.execute(calendar().events().get(calendarId, eventId)
+          .setFields("etag,attendees"));
+      List<EventAttendee> attendees = new ArrayList<>(
+          Optional.ofNullable(current.getAttendees()).orElse(List.of()));
+
+      List<List<BulkItemResult>> outcomes = new ArrayList<>(batch.size());
+      boolean changed = false;
+      for (Change change : batch) {
+        List<BulkItemResult> results = new ArrayList<>(change.emails.size());
+        for (String email : change.emails) {
+          boolean present = attendees.stream().anyMatch(a -> email.equalsIgnoreCase(a.getEmail()));
+          if (change.add && !present) {
+            attendees.add(new EventAttendee().setEmail(email));
+            changed = true;
+            results.add(BulkItemResult.ok(email, eventId, "User added to event"));
+          } else if (change.add) {
+            results.add(BulkItemResult.skipped(email, eventId, "User already in event"));
+          } else if (present) {
+            attendees.removeIf(a -> email.equalsIgnoreCase(a.getEmail()));
+            changed = true;
+            results.add(BulkItemResult.ok(email, eventId, "User removed from event"));
+          } else {
+            results.add(BulkItemResult.skipped(email, eventId, "User not found in event"));
+          }
+        }
+        outcomes.add(results);
+      }
+
+      if (changed) {
+        Calendar.Events.Patch patch = calendar().events()
+            .patch(calendarId, eventId, new Event().setAttendees(attendees))
+            .setFields(PATCH_RESPONSE_FIELDS);
+        patch.getRequestHeaders().setIfMatch(current.getEtag());
+        try {
+          calendarMirror.upsert(calendarId, googleApi.execute(patch));
+        } catch (GoogleJsonResponseException e) {
+          if (e.getStatusCode() == 412 && attempt < MAX_ATTEMPTS) {
+            log.info("Attendee patch lost etag race, retrying | eventId: {}, attempt: {}", eventId,
+                attempt);
+            continue;
+          }
+          throw e;
+        }
+      }
+      for (int i = 0; i < batch.size(); i++) {
+        batch.get(i).outcome.complete(outcomes.get(i));
+      }
+      if (batch.size() > 1) {
+        log.info("Attendee changes coalesced | eventId: {}, changes: {}", eventId, batch.size());
+      }
+      return;
+    }
+  }
+
+  private static final class Change {
+
+    private final boolean add;
+    private final List<String> emails;
+    private final CompletableFuture<List<BulkItemResult>> outcome = new CompletableFuture<>();
+    private final CompletableFuture<Void> leadership = new CompletableFuture<>();
+    private final Thread caller = Thread.currentThread();
+
+    private Change(boolean add, List<String> emails) {
+      // Checked before the change is queued, where a bad entry would fail the whole batch
+      if (emails != null && emails.stream().anyMatch(email -> email == null || email.isBlank())) {
+        throw new IllegalArgumentException("Attendee email must not be blank");
+      }
+      this.add = add;
+      this.emails = emails == null ? List.of() : List.copyOf(emails);
+    }
+  }
+
+  private static final class EventQueue {
+
+    private final List<Change> pending = new ArrayList<>();
+    private boolean running;
+  }
+
+  private Calendar calendar() {
+    return gCalendar.getObject();
+  }
+}
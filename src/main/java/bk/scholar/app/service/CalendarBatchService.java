@@ -0,0 +1,131 @@
+package bk.scholar.app.service;
+
+import bk.scholar.app.dto.BulkItemResult;
+import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.model.Event;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+/**
+ * Sends many Calendar mutations as Google batch HTTP requests, one multipart round trip per
+ * {@value #MAX_BATCH_SIZE} items, and reports a result for every item.
+ */
+@Service
+public class CalendarBatchService {
+
+  private static final Logger log = LoggerFactory.getLogger(CalendarBatchService.class);
+  // Calendar accepts up to 1000 calls per batch but recommends staying at 50
+  private static final int MAX_BATCH_SIZE = 50;
+  private final ObjectProvider<Calendar> gCalendar;
+  private final CalendarMirrorService calendarMirror;
+  private final GoogleApiExecutor googleApi;
+
+  public CalendarBatchService(ObjectProvider<Calendar> gCalendar,
+      CalendarMirrorService calendarMirror, GoogleApiExecutor googleApi) {
+    this.gCalendar = gCalendar;
+    this.calendarMirror = calendarMirror;
+    this.googleApi = googleApi;
+  }
+
+  /**
+   * Inserts the events in batches. Items Google rate limited are sent once more after a
+   * backoff. If a whole batch request fails, the items it did not answer are reported as failed
+   * and later batches are not sent, so the results always show what was created.
+   *
+   * @return one result per insert, in the same order; labels need not be unique
+   */
+  public List<BulkItemResult> insertEvents(String calendarId, List<Insert> inserts)
+      throws IOException {
+    BulkItemResult[] results = new BulkItemResult[inserts.size()];
+    List<Integer> throttled = new ArrayList<>();
+    boolean sent = send(calendarId, inserts,
+        IntStream.range(0, inserts.size()).boxed().toList(), results, throttled);
+    if (sent && !throttled.isEmpty() && googleApi.backOff(1)) {
+      log.info("Calendar batch insert rate limited, retrying | calendarId: {}, events: {}",
+          calendarId, throttled.size());
+      send(calendarId, inserts, throttled, results, null);
+    }
+    for (int i = 0; i < results.length; i++) {
+      if (results[i] == null) {
+        results[i] = BulkItemResult.failed(inserts.get(i).label(), "No response from Google");
+      }
+    }
+    log.info("Calendar batch insert | calendarId: {}, events: {}", calendarId, inserts.size());
+    return Arrays.asList(results);
+  }
+
+  /**
+   * Sends the given positions and records their results.
+   *
+   * @param throttled collects rate-limited positions, or null when they are final failures
+   * @return false when a batch request failed and the rest were not sent
+   */
+  private boolean send(String calendarId, List<Insert> inserts, List<Integer> positions,
+      BulkItemResult[] results, List<Integer> throttled) throws IOException {
+    for (int from = 0; from < positions.size(); from += MAX_BATCH_SIZE) {
+      List<Integer> chunk = positions.subList(from,
+          Math.min(from + MAX_BATCH_SIZE, positions.size()));
+      BatchRequest batch = calendar().batch();
+      for (int index : chunk) {
+        String key = inserts.get(index).label();
+        calendar().events().insert(calendarId, inserts.get(index).event())
+            .queue(batch, new JsonBatchCallback<>() {
+              @Override
+              public void onSuccess(Event created, HttpHeaders responseHeaders) {
+                calendarMirror.upsert(calendarId, created);
+                results[index] = BulkItemResult.ok(key, created.getId(), "Event created");
+              }
+
+              @Override
+              public void onFailure(GoogleJsonError error, HttpHeaders responseHeaders) {
+                if (throttled != null && GoogleApiExecutor.isRateLimited(error)) {
+                  throttled.add(index);
+                }
+                results[index] = BulkItemResult.failed(key, error.getMessage());
+              }
+            });
+      }
+      try {
+        googleApi.execute(batch);
+      } catch (IOException e) {
+        log.warn("Calendar batch request failed | calendarId: {}, cause: {}", calendarId,
+            e.getMessage());
+        for (int index : chunk) {
+          if (results[index] == null) {
+            results[index] = BulkItemResult.failed(inserts.get(index).label(),
+                "Batch request failed, the event may not have been created: " + e.getMessage());
+          }
+        }
+        for (int index : positions.subList(from + chunk.size(), positions.size())) {
+          results[index] = BulkItemResult.skipped(inserts.get(index).label(), null,
+              "Not sent because an earlier batch request failed");
+        }
+        if (throttled != null) {
+          throttled.clear();
+        }
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * One event to insert, with the label its result is reported under.
+   */
+  public record Insert(String label, Event event) {}
+
+  private Calendar calendar() {
+    return gCalendar.getObject();
+  }
+}
@@ -0,0 +1,282 @@
+package bk.scholar.app.service;
+
+import bk.scholar.app.config.GoogleTenant;
+import bk.scholar.app.domain.CalendarEventEntry;
+import bk.scholar.app.domain.SyncState;
+import bk.scholar.app.dto.CalendarEventPage;
+import bk.scholar.app.dto.MirroredEvent;
+import bk.scholar.app.pepository.CalendarEventEntryRepository;
+import bk.scholar.app.pepository.SyncStateRepository;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+import com.google.api.services.calendar.model.Events;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Local PostgreSQL mirror of a Google calendar. It is seeded by one full sync and then kept
+ * current with {@code syncToken} incremental syncs, so reads are indexed time-range queries
+ * instead of API calls.
+ */
+@Service
+public class CalendarMirrorService {
+
+  /**
+   * Recurring events are mirrored as their individual instances. Live reads must ask Google for
+   * the same, so a page looks the same whichever path served it.
+   */
+  public static final boolean SINGLE_EVENTS = true;
+  private static final Logger log = LoggerFactory.getLogger(CalendarMirrorService.class);
+  private static final String SYNC_FIELDS =
+      "nextPageToken,nextSyncToken,items(id,summary,etag,status,start,end,updated)";
+  private static final String PAGE_TOKEN_PREFIX = "mirror:";
+  private static final Instant MIN_TIME = Instant.parse("0001-01-01T00:00:00Z");
+  private static final Instant MAX_TIME = Instant.parse("9999-12-31T00:00:00Z");
+  private final ObjectProvider<Calendar> gCalendar;
+  private final GoogleApiExecutor googleApi;
+  private final CalendarEventEntryRepository eventRepository;
+  private final SyncStateRepository syncStateRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean enabled;
+  private final String calendarId = "primary";
+
+  public CalendarMirrorService(ObjectProvider<Calendar> gCalendar, GoogleApiExecutor googleApi,
+      CalendarEventEntryRepository eventRepository, SyncStateRepository syncStateRepository,
+      TransactionTemplate transactionTemplate,
+      @Value("${scholar.calendar-mirror.enabled:true}") boolean enabled) {
+    this.gCalendar = gCalendar;
+    this.googleApi = googleApi;
+    this.eventRepository = eventRepository;
+    this.syncStateRepository = syncStateRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.enabled = enabled;
+  }
+
+  @Scheduled(initialDelayString = "${scholar.calendar-mirror.initial-delay:PT5S}",
+      fixedDelayString = "${scholar.calendar-mirror.sync-interval:PT5M}")
+  public void scheduledSync() {
+    if (!enabled) {
+      return;
+    }
+    try {
+      sync(calendarId);
+    } catch (Exception e) {
+      log.warn("Calendar mirror sync failed | calendarId: {}", calendarId, e);
+    }
+  }
+
+  /**
+   * Brings the mirror of one calendar up to date: a full sync the first time or after the sync
+   * token expired (HTTP 410), an incremental sync otherwise.
+   */
+  public synchronized void sync(String calendarId) throws IOException {
+    String stateKey = stateKey(calendarId);
+    String syncToken = syncStateRepository.findById(stateKey)
+        .map(SyncState::getSyncToken)
+        .orElse(null);
+    try {
+      fetchAndApply(calendarId, syncToken);
+    } catch (GoogleJsonResponseException e) {
+      if (e.getStatusCode() != 410 || syncToken == null) {
+        throw e;
+      }
+      log.info("Calendar sync token expired, running full sync | calendarId: {}", calendarId);
+      fetchAndApply(calendarId, null);
+    }
+  }
+
+  private void fetchAndApply(String calendarId, String syncToken) throws IOException {
+    boolean fullSync = syncToken == null;
+    List<Event> changed = new ArrayList<>();
+    String pageToken = null;
+    Events events;
+    do {
+      Calendar.Events.List request = calendar().events().list(calendarId)
+          .setSingleEvents(SINGLE_EVENTS)
+          .setMaxResults(2500)
+          .setPageToken(pageToken)
+          .setFields(SYNC_FIELDS);
+      if (fullSync) {
+        request.setShowDeleted(false);
+      } else {
+        request.setSyncToken(syncToken);
+      }
+      events = googleApi.execute(request);
+      if (events.getItems() != null) {
+        changed.addAll(events.getItems());
+      }
+      pageToken = events.getNextPageToken();
+    } while (pageToken != null);
+
+    String nextSyncToken = events.getNextSyncToken();
+    // Apply the whole delta atomically so readers never see a half-synced calendar
+    transactionTemplate.executeWithoutResult(status -> {
+      if (fullSync) {
+        eventRepository.deleteByCalendarId(calendarId);
+      }
+      List<CalendarEventEntry> upserts = new ArrayList<>();
+      List<String> removals = new ArrayList<>();
+      for (Event event : changed) {
+        if ("cancelled".equals(event.getStatus())) {
+          removals.add(event.getId());
+        } else {
+          upserts.add(toEntry(calendarId, event));
+        }
+      }
+      if (!removals.isEmpty()) {
+        eventRepository.deleteEvents(calendarId, removals);
+      }
+      eventRepository.upsertAll(upserts);
+      syncStateRepository.save(new SyncState(stateKey(calendarId), nextSyncToken, Instant.now()));
+    });
+    log.info("Calendar mirror synced | calendarId: {}, full: {}, changes: {}", calendarId, fullSync,
+        changed.size());
+  }
+
+  /**
+   * @return true once the calendar has completed at least one full sync; always false for
+   * calls made for a tenant other than the default one, whose calendars are not mirrored
+   */
+  public boolean isReady(String calendarId) {
+    return enabled && GoogleTenant.isDefault()
+        && syncStateRepository.existsById(stateKey(calendarId));
+  }
+
+  /**
+   * @return true when the read should be answered by {@link #findEvents}: the mirror is ready
+   * and the page token, if any, was issued by it rather than by Google
+   * @throws IllegalArgumentException for a mirror page token the mirror can no longer serve
+   */
+  public boolean serves(String calendarId, String pageToken) {
+    boolean blank = pageToken == null || pageToken.isBlank();
+    boolean ours = !blank && pageToken.startsWith(PAGE_TOKEN_PREFIX);
+    if (!blank && !ours) {
+      return false;
+    }
+    if (isReady(calendarId)) {
+      return true;
+    }
+    if (ours) {
+      // Google would reject it; tell the caller to start over instead
+      throw new IllegalArgumentException(
+          "pageToken has expired, repeat the call without it to start from the first page");
+    }
+    return false;
+  }
+
+  /**
+   * Events overlapping the window, ordered by (start, id). The page token is a keyset position,
+   * so a page costs the same however deep it is.
+   */
+  public CalendarEventPage findEvents(String calendarId, DateTime timeMin, DateTime timeMax,
+      int maxResults, String pageToken) {
+    Instant from = timeMin == null ? MIN_TIME : Instant.ofEpochMilli(timeMin.getValue());
+    Instant to = timeMax == null ? MAX_TIME : Instant.ofEpochMilli(timeMax.getValue());
+    Limit limit = Limit.of(maxResults + 1);
+    List<MirroredEvent> rows;
+    if (pageToken == null || pageToken.isBlank()) {
+      rows = eventRepository.findWindow(calendarId, from, to, limit);
+    } else {
+      PagePosition after = PagePosition.decode(pageToken);
+      rows = eventRepository.findWindowAfter(calendarId, from, to, after.startTime(),
+          after.eventId(), limit);
+    }
+    boolean more = rows.size() > maxResults;
+    List<MirroredEvent> page = more ? rows.subList(0, maxResults) : rows;
+    return new CalendarEventPage(page.stream().map(MirroredEvent::toCalendarEvent).toList(),
+        more ? PagePosition.of(page.get(maxResults - 1)).encode() : null);
+  }
+
+  /**
+   * Applies a locally made mutation right away so reads do not wait for the next sync.
+   */
+  public void upsert(String calendarId, Event event) {
+    if (isReady(calendarId)) {
+      eventRepository.upsertAll(List.of(toEntry(calendarId, event)));
+    }
+  }
+
+  public void remove(String calendarId, String eventId) {
+    if (isReady(calendarId)) {
+      eventRepository.deleteById(new CalendarEventEntry.Key(calendarId, eventId));
+    }
+  }
+
+  private static CalendarEventEntry toEntry(String calendarId, Event event) {
+    CalendarEventEntry entry = new CalendarEventEntry();
+    entry.setCalendarId(calendarId);
+    entry.setEventId(event.getId());
+    entry.setSummary(event.getSummary());
+    entry.setEtag(event.getEtag());
+    entry.setStartTime(toInstant(event.getStart()));
+    entry.setEndTime(toInstant(event.getEnd()));
+    entry.setUpdated(event.getUpdated() == null ? null
+        : Instant.ofEpochMilli(event.getUpdated().getValue()));
+    return entry;
+  }
+
+  private static Instant toInstant(EventDateTime time) {
+    if (time == null) {
+      return null;
+    }
+    DateTime value = time.getDateTime() != null ? time.getDateTime() : time.getDate();
+    return value == null ? null : Instant.ofEpochMilli(value.getValue());
+  }
+
+  private static String stateKey(String calendarId) {
+    return "calendar:" + calendarId;
+  }
+
+  private Calendar calendar() {
+    return gCalendar.getObject();
+  }
+
+  /**
+   * The last (start, id) a page returned, opaque to callers.
+   */
+  private record PagePosition(Instant startTime, String eventId) {
+
+    private static final char SEPARATOR = '|';
+
+    static PagePosition of(MirroredEvent last) {
+      return new PagePosition(last.startTime(), last.id());
+    }
+
+    String encode() {
+      String position = startTime.toString() + SEPARATOR + eventId;
+      return PAGE_TOKEN_PREFIX + Base64.getUrlEncoder().withoutPadding()
+          .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static PagePosition decode(String pageToken) {
+      try {
+        String position = new String(Base64.getUrlDecoder()
+            .decode(pageToken.substring(PAGE_TOKEN_PREFIX.length())), StandardCharsets.UTF_8);
+        int separator = position.indexOf(SEPARATOR);
+        if (separator > 0 && separator < position.length() - 1) {
+          return new PagePosition(Instant.parse(position.substring(0, separator)),
+              position.substring(separator + 1));
+        }
+      } catch (IllegalArgumentException | DateTimeException e) {
+        // Reported below
+      }
+      throw new IllegalArgumentException("Invalid pageToken: " + pageToken);
+    }
+  }
+}
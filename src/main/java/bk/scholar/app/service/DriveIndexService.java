@@ -0,0 +1,208 @@
+package bk.scholar.app.service;
+
+import bk.scholar.app.config.GoogleTenant;
+import bk.scholar.app.domain.DriveFileEntry;
+import bk.scholar.app.domain.SyncState;
+import bk.scholar.app.dto.FileItem;
+import bk.scholar.app.pepository.DriveFileEntryRepository;
+import bk.scholar.app.pepository.SyncStateRepository;
+import com.google.api.services.drive.Drive;
+import com.google.api.services.drive.model.Change;
+import com.google.api.services.drive.model.ChangeList;
+import com.google.api.services.drive.model.File;
+import com.google.api.services.drive.model.FileList;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Local index of Drive file metadata (id, name, mimeType, parent, trashed). It is seeded by one
+ * full listing and then kept current from the Drive changes feed, so name-to-id resolution and
+ * folder listings do not need a {@code files().list} round trip.
+ * <p>
+ * Only a file's first parent is indexed. Drive has allowed a single parent since 2020, but
+ * older files may still have several; such a file is listed under its first parent only, and
+ * {@code parent_count} records how many it has.
+ */
+@Service
+public class DriveIndexService {
+
+  private static final Logger log = LoggerFactory.getLogger(DriveIndexService.class);
+  private static final String STATE_KEY = "drive:changes";
+  private static final String FILE_FIELDS = "id,name,mimeType,parents,trashed";
+  private final ObjectProvider<Drive> gDrive;
+  private final GoogleApiExecutor googleApi;
+  private final DriveFileEntryRepository fileRepository;
+  private final SyncStateRepository syncStateRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean enabled;
+
+  public DriveIndexService(ObjectProvider<Drive> gDrive, GoogleApiExecutor googleApi,
+      DriveFileEntryRepository fileRepository, SyncStateRepository syncStateRepository,
+      TransactionTemplate transactionTemplate,
+      @Value("${scholar.drive-index.enabled:true}") boolean enabled) {
+    this.gDrive = gDrive;
+    this.googleApi = googleApi;
+    this.fileRepository = fileRepository;
+    this.syncStateRepository = syncStateRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.enabled = enabled;
+  }
+
+  @Scheduled(initialDelayString = "${scholar.drive-index.initial-delay:PT10S}",
+      fixedDelayString = "${scholar.drive-index.sync-interval:PT2M}")
+  public void scheduledSync() {
+    if (!enabled) {
+      return;
+    }
+    try {
+      sync();
+    } catch (Exception e) {
+      log.warn("Drive index sync failed", e);
+    }
+  }
+
+  public synchronized void sync() throws IOException {
+    Optional<SyncState> state = syncStateRepository.findById(STATE_KEY);
+    if (state.isEmpty() || state.get().getSyncToken() == null) {
+      seed();
+    } else {
+      applyChanges(state.get().getSyncToken());
+    }
+  }
+
+  private void seed() throws IOException {
+    // Take the changes cursor first so nothing modified during the listing is missed
+    String startPageToken = googleApi.execute(drive().changes().getStartPageToken())
+        .getStartPageToken();
+    List<DriveFileEntry> entries = new ArrayList<>();
+    String pageToken = null;
+    do {
+      FileList page = googleApi.execute(drive().files().list()
+          .setQ("trashed = false")
+          .setPageSize(1000)
+          .setPageToken(pageToken)
+          .setFields("nextPageToken,files(" + FILE_FIELDS + ")"));
+      page.getFiles().stream().map(DriveIndexService::toEntry).forEach(entries::add);
+      pageToken = page.getNextPageToken();
+    } while (pageToken != null);
+
+    transactionTemplate.executeWithoutResult(status -> {
+      fileRepository.deleteAllEntries();
+      fileRepository.upsertAll(entries);
+      syncStateRepository.save(new SyncState(STATE_KEY, startPageToken, Instant.now()));
+    });
+    log.info("Drive index seeded | files: {}", entries.size());
+  }
+
+  private void applyChanges(String pageToken) throws IOException {
+    // Latest change per file, null for a removal; a file can change more than once in the feed
+    Map<String, DriveFileEntry> latest = new LinkedHashMap<>();
+    String token = pageToken;
+    String newStartPageToken = null;
+    while (newStartPageToken == null) {
+      ChangeList changes = googleApi.execute(drive().changes().list(token)
+          .setPageSize(1000)
+          .setIncludeRemoved(true)
+          .setFields("nextPageToken,newStartPageToken,changes(fileId,removed,file("
+              + FILE_FIELDS + "))"));
+      for (Change change : changes.getChanges()) {
+        File file = change.getFile();
+        if (Boolean.TRUE.equals(change.getRemoved()) || file == null
+            || Boolean.TRUE.equals(file.getTrashed())) {
+          latest.put(change.getFileId(), null);
+        } else {
+          latest.put(change.getFileId(), toEntry(file));
+        }
+      }
+      token = changes.getNextPageToken();
+      newStartPageToken = changes.getNewStartPageToken();
+    }
+
+    List<DriveFileEntry> upserts = new ArrayList<>();
+    List<String> removals = new ArrayList<>();
+    latest.forEach((fileId, entry) -> {
+      if (entry == null) {
+        removals.add(fileId);
+      } else {
+        upserts.add(entry);
+      }
+    });
+    String nextToken = newStartPageToken;
+    transactionTemplate.executeWithoutResult(status -> {
+      if (!removals.isEmpty()) {
+        fileRepository.deleteEntries(removals);
+      }
+      fileRepository.upsertAll(upserts);
+      syncStateRepository.save(new SyncState(STATE_KEY, nextToken, Instant.now()));
+    });
+    if (!upserts.isEmpty() || !removals.isEmpty()) {
+      log.info("Drive index updated | upserts: {}, removals: {}", upserts.size(), removals.size());
+    }
+  }
+
+  /**
+   * @return true once the index has been seeded; always false for tenants other than the
+   * default one, whose Drive is not indexed
+   */
+  public boolean isReady() {
+    return enabled && GoogleTenant.isDefault() && syncStateRepository.existsById(STATE_KEY);
+  }
+
+  public List<FileItem> listChildren(String folderId) {
+    return fileRepository.findByParentIdAndTrashedFalseOrderByNameAsc(folderId).stream()
+        .map(f -> new FileItem(f.getId(), f.getName(), f.getMimeType(),
+            String.valueOf(f.getParentCount())))
+        .collect(Collectors.toList());
+  }
+
+  public Optional<String> findIdByName(String parentId, String name) {
+    return fileRepository.findFirstByParentIdAndNameAndTrashedFalse(parentId, name)
+        .map(DriveFileEntry::getId);
+  }
+
+  /**
+   * Applies a locally made mutation right away so reads do not wait for the changes feed. The
+   * file must have been fetched with at least id, name, mimeType and parents.
+   */
+  public void upsert(File file) {
+    if (isReady()) {
+      fileRepository.upsertAll(List.of(toEntry(file)));
+    }
+  }
+
+  public void remove(String fileId) {
+    if (isReady()) {
+      fileRepository.deleteById(fileId);
+    }
+  }
+
+  private static DriveFileEntry toEntry(File file) {
+    DriveFileEntry entry = new DriveFileEntry();
+    entry.setId(file.getId());
+    entry.setName(file.getName());
+    entry.setMimeType(file.getMimeType());
+    List<String> parents = file.getParents();
+    // First parent only, see the class comment
+    entry.setParentId(parents == null || parents.isEmpty() ? null : parents.get(0));
+    entry.setParentCount(parents == null ? 0 : parents.size());
+    entry.setTrashed(Boolean.TRUE.equals(file.getTrashed()));
+    return entry;
+  }
+
+  private Drive drive() {
+    return gDrive.getObject();
+  }
+}
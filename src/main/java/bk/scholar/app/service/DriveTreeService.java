@@ -0,0 +1,125 @@
+package bk.scholar.app.service;
+
+import bk.scholar.app.config.GoogleTenant;
+import bk.scholar.app.dto.FileTree;
+import bk.scholar.app.dto.FileTreeItem;
+import bk.scholar.app.tool.ToolCallDeadline;
+import com.google.api.services.drive.Drive;
+import com.google.api.services.drive.model.File;
+import com.google.api.services.drive.model.FileList;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Walks a Drive folder tree breadth first. Every folder of a level is listed concurrently on
+ * virtual threads, with a semaphore capping how many {@code files().list} calls are in flight.
+ * Each listing runs bound to the caller's tenant and tool call deadline.
+ */
+@Service
+public class DriveTreeService {
+
+  private static final Logger log = LoggerFactory.getLogger(DriveTreeService.class);
+  private static final String FOLDER_MIME_TYPE = "application/vnd.google-apps.folder";
+  private final ObjectProvider<Drive> gDrive;
+  private final GoogleApiExecutor googleApi;
+  private final Semaphore permits;
+
+  public DriveTreeService(ObjectProvider<Drive> gDrive, GoogleApiExecutor googleApi,
+      @Value("${scholar.drive-tree.max-concurrency:8}") int maxConcurrency) {
+    this.gDrive = gDrive;
+    this.googleApi = googleApi;
+    this.permits = new Semaphore(maxConcurrency);
+  }
+
+  public FileTree walk(String rootId, int maxDepth, int maxItems) throws IOException {
+    List<FileTreeItem> items = new ArrayList<>();
+    List<String> frontier = List.of(rootId);
+    boolean truncated = false;
+    // One client for the whole walk
+    Drive drive = drive();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int depth = 1; depth <= maxDepth && !frontier.isEmpty() && !truncated; depth++) {
+        List<Future<List<File>>> listings = new ArrayList<>(frontier.size());
+        for (String folderId : frontier) {
+          listings.add(executor.submit(ToolCallDeadline.bind(
+              GoogleTenant.bind(() -> listChildren(drive, folderId)))));
+        }
+
+        List<String> nextFrontier = new ArrayList<>();
+        for (int i = 0; i < listings.size() && !truncated; i++) {
+          String parentId = frontier.get(i);
+          for (File file : await(listings.get(i))) {
+            if (items.size() >= maxItems) {
+              truncated = true;
+              break;
+            }
+            items.add(new FileTreeItem(file.getId(), file.getName(), file.getMimeType(), parentId,
+                depth));
+            if (FOLDER_MIME_TYPE.equals(file.getMimeType())) {
+              nextFrontier.add(file.getId());
+            }
+          }
+        }
+        // Folders below the depth limit are reported but not expanded
+        frontier = nextFrontier;
+      }
+      if (truncated) {
+        executor.shutdownNow();
+      }
+    }
+    log.info("Drive tree walked | rootId: {}, items: {}, truncated: {}", rootId, items.size(),
+        truncated);
+    return new FileTree(rootId, items, truncated);
+  }
+
+  private List<File> listChildren(Drive drive, String folderId) throws IOException, InterruptedException {
+    List<File> children = new ArrayList<>();
+    String pageToken = null;
+    do {
+      FileList page;
+      permits.acquire();
+      try {
+        page = googleApi.execute(drive.files().list()
+            .setQ("'" + folderId + "' in parents and trashed = false")
+            .setPageSize(1000)
+            .setPageToken(pageToken)
+            .setFields("nextPageToken,files(id,name,mimeType)"));
+      } finally {
+        permits.release();
+      }
+      children.addAll(page.getFiles());
+      pageToken = page.getNextPageToken();
+    } while (pageToken != null);
+    return children;
+  }
+
+  private static List<File> await(Future<List<File>> listing) throws IOException {
+    try {
+      return listing.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while listing Drive folder");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException io) {
+        throw io;
+      }
+      throw new IOException("Failed to list Drive folder", e.getCause());
+    }
+  }
+
+  private Drive drive() {
+    return gDrive.getObject();
+  }
+}
@@ -0,0 +1,246 @@
+package bk.scholar.app.service;
+
+import bk.scholar.app.config.GoogleTenant;
+import bk.scholar.app.dto.GoogleApiStatistics;
+import bk.scholar.app.tool.ToolCallDeadline;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.googleapis.services.AbstractGoogleClientRequest;
+import com.google.api.client.http.HttpResponseException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Single path for every Google API call. Each call takes permits from a per-user (per tenant)
+ * and a per-project token bucket sized to the Google quotas, and retryable failures (429 and
+ * 403 rate limits always; 5xx and I/O errors only on idempotent requests) are retried with
+ * exponential backoff and jitter. Batches and media uploads get a single attempt. Waiting never
+ * runs past the current tool call's deadline.
+ */
+@Service
+public class GoogleApiExecutor {
+
+  private static final Logger log = LoggerFactory.getLogger(GoogleApiExecutor.class);
+  private static final Set<String> RATE_LIMIT_REASONS = Set.of(
+      "rateLimitExceeded", "userRateLimitExceeded", "quotaExceeded");
+  private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE");
+  private final LoadingCache<String, TokenBucket> userBuckets;
+  private final TokenBucket projectBucket;
+  private final int maxAttempts;
+  private final long initialBackoffNanos;
+  private final long maxBackoffNanos;
+  private final long defaultDeadlineNanos;
+  private final AtomicLong calls = new AtomicLong();
+  private final AtomicLong throttledCalls = new AtomicLong();
+  private final AtomicLong throttledNanos = new AtomicLong();
+  private final AtomicLong retries = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+  private final AtomicLong deadlineExceeded = new AtomicLong();
+  private final MeterRegistry registry;
+  private final Timer quotaWait;
+
+  public GoogleApiExecutor(MeterRegistry registry,
+      @Value("${scholar.google.rate.user-per-second:10}") double userPerSecond,
+      @Value("${scholar.google.rate.project-per-second:100}") double projectPerSecond,
+      @Value("${scholar.google.rate.burst:20}") double burst,
+      @Value("${scholar.google.retry.max-attempts:5}") int maxAttempts,
+      @Value("${scholar.google.retry.initial-backoff:PT0.5S}") Duration initialBackoff,
+      @Value("${scholar.google.retry.max-backoff:PT16S}") Duration maxBackoff,
+      @Value("${scholar.google.call-deadline:PT60S}") Duration defaultDeadline) {
+    // An idle tenant's bucket has refilled anyway, so dropping it loses nothing
+    this.userBuckets = Caffeine.newBuilder()
+        .expireAfterAccess(Duration.ofMinutes(10))
+        .build(tenant -> new TokenBucket(userPerSecond, burst));
+    this.projectBucket = new TokenBucket(projectPerSecond, burst);
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.initialBackoffNanos = initialBackoff.toNanos();
+    this.maxBackoffNanos = maxBackoff.toNanos();
+    this.defaultDeadlineNanos = defaultDeadline.toNanos();
+    this.registry = registry;
+    this.quotaWait = Timer.builder("scholar.google.quota.wait")
+        .description("Time Google calls spent waiting for rate limit permits")
+        .register(registry);
+    counter("scholar.google.retries", retries);
+    counter("scholar.google.failures", failures);
+    counter("scholar.google.deadline.exceeded", deadlineExceeded);
+  }
+
+  public <T> T execute(AbstractGoogleClientRequest<T> request) throws IOException {
+    String method = request.getRequestMethod();
+    String operation = method + " " + request.getClass().getSimpleName();
+    if (request.getMediaHttpUploader() != null) {
+      // The uploader retries each chunk and resumes from Drive's offset itself; sending the
+      // whole request again would restart the upload from the first byte
+      return execute(operation, 1, false, 1, request::execute);
+    }
+    return execute(operation, 1, IDEMPOTENT_METHODS.contains(method), request::execute);
+  }
+
+  /**
+   * Sends a batch; it costs one permit per queued call.
+   */
+  public void execute(BatchRequest batch) throws IOException {
+    int size = batch.size();
+    if (size == 0) {
+      return;
+    }
+    // A batch that failed part way has already answered some callbacks, so it is not replayed;
+    // callers retry the items that were rate limited themselves
+    execute("batch", size, false, 1, () -> {
+      batch.execute();
+      return null;
+    });
+  }
+
+  public <T> T execute(String operation, int cost, boolean idempotent, GoogleCall<T> call)
+      throws IOException {
+    return execute(operation, cost, idempotent, maxAttempts, call);
+  }
+
+  private <T> T execute(String operation, int cost, boolean idempotent, int maxAttempts,
+      GoogleCall<T> call) throws IOException {
+    long deadline = System.nanoTime()
+        + ToolCallDeadline.remainingNanos().orElse(defaultDeadlineNanos);
+    calls.incrementAndGet();
+    for (int attempt = 1; ; attempt++) {
+      acquire(cost, deadline, operation);
+      long start = System.nanoTime();
+      try {
+        T result = call.execute();
+        recordAttempt(operation, "success", start);
+        return result;
+      } catch (IOException e) {
+        recordAttempt(operation, e instanceof HttpResponseException response
+            ? String.valueOf(response.getStatusCode())
+            : "io_error", start);
+        if (attempt >= maxAttempts || !isRetryable(e, idempotent)) {
+          failures.incrementAndGet();
+          throw e;
+        }
+        long backoff = backoffNanos(attempt);
+        if (System.nanoTime() + backoff > deadline) {
+          failures.incrementAndGet();
+          deadlineExceeded.incrementAndGet();
+          throw e;
+        }
+        retries.incrementAndGet();
+        log.info("Google call failed, retrying | operation: {}, attempt: {}, backoff: {} ms, cause: {}",
+            operation, attempt, TimeUnit.NANOSECONDS.toMillis(backoff), e.getMessage());
+        sleep(backoff);
+      }
+    }
+  }
+
+  public GoogleApiStatistics statistics() {
+    return new GoogleApiStatistics(calls.get(), throttledCalls.get(),
+        TimeUnit.NANOSECONDS.toMillis(throttledNanos.get()), retries.get(), failures.get(),
+        deadlineExceeded.get());
+  }
+
+  private void acquire(int cost, long deadline, String operation) throws IOException {
+    TokenBucket userBucket = userBuckets.get(GoogleTenant.current());
+    long wait = Math.max(userBucket.reserve(cost), projectBucket.reserve(cost));
+    if (wait == 0) {
+      return;
+    }
+    if (System.nanoTime() + wait > deadline) {
+      userBucket.cancel(cost);
+      projectBucket.cancel(cost);
+      deadlineExceeded.incrementAndGet();
+      throw new IOException("Google API quota wait would exceed the call deadline: " + operation);
+    }
+    throttledCalls.incrementAndGet();
+    throttledNanos.addAndGet(wait);
+    quotaWait.record(wait, TimeUnit.NANOSECONDS);
+    sleep(wait);
+  }
+
+  private void recordAttempt(String operation, String outcome, long startNanos) {
+    Timer.builder("scholar.google.requests")
+        .description("Latency of a single Google API attempt, excluding quota waits and backoff")
+        .tag("operation", operation)
+        .tag("outcome", outcome)
+        .register(registry)
+        .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  private void counter(String name, AtomicLong value) {
+    FunctionCounter.builder(name, value, AtomicLong::get).register(registry);
+  }
+
+  /**
+   * Waits one retry backoff, for callers that retry part of a request themselves (e.g. the
+   * rate-limited items of a batch).
+   *
+   * @return false, without waiting, when the backoff would run past the call's deadline
+   */
+  public boolean backOff(int attempt) throws InterruptedIOException {
+    long backoff = backoffNanos(attempt);
+    if (backoff > ToolCallDeadline.remainingNanos().orElse(defaultDeadlineNanos)) {
+      return false;
+    }
+    retries.incrementAndGet();
+    sleep(backoff);
+    return true;
+  }
+
+  /**
+   * @return true for a 429 or a 403 rate limit error, which Google rejected without applying
+   */
+  static boolean isRateLimited(GoogleJsonError error) {
+    return error != null && (error.getCode() == 429 || error.getErrors() != null
+        && error.getErrors().stream().anyMatch(item -> RATE_LIMIT_REASONS.contains(item.getReason())));
+  }
+
+  private long backoffNanos(int attempt) {
+    long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+    return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+  }
+
+  private static boolean isRetryable(IOException e, boolean idempotent) {
+    // Batches fail with a plain HttpResponseException, single calls with its JSON subclass
+    if (e instanceof HttpResponseException response) {
+      int status = response.getStatusCode();
+      if (status == 429) {
+        return true;
+      }
+      if (status == 403 && e instanceof GoogleJsonResponseException json) {
+        return isRateLimited(json.getDetails());
+      }
+      // A 5xx does not say whether the change was applied, so only repeat what is safe to repeat
+      return status >= 500 && idempotent;
+    }
+    // Connection resets and timeouts: only safe when repeating the request cannot duplicate it
+    return idempotent;
+  }
+
+  private static void sleep(long nanos) throws InterruptedIOException {
+    try {
+      TimeUnit.NANOSECONDS.sleep(nanos);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting to call Google");
+    }
+  }
+
+  @FunctionalInterface
+  public interface GoogleCall<T> {
+
+    T execute() throws IOException;
+  }
+}
@@ -0,0 +1,52 @@
+package bk.scholar.app.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Confines tool-supplied local paths to a configured directory. Both sides are compared as real
+ * paths, so {@code ..} segments and symlinks that lead out of the directory are rejected.
+ */
+final class LocalFiles {
+
+  private LocalFiles() {
+  }
+
+  /**
+   * Creates the directory if needed and returns its real path; fails startup when it is unusable.
+   */
+  static Path baseDir(String property, String configured) {
+    if (configured == null || configured.isBlank()) {
+      throw new IllegalStateException(property + " must be set");
+    }
+    try {
+      Path dir = Files.createDirectories(Paths.get(configured).toAbsolutePath());
+      return dir.toRealPath();
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot use " + property + "=" + configured, e);
+    }
+  }
+
+  /**
+   * Resolves a path against the base directory (absolute paths are taken as is) and returns the
+   * regular file it points to, after following links.
+   */
+  static Path resolve(Path baseDir, String localPath) throws IOException {
+    Path path;
+    try {
+      path = baseDir.resolve(localPath).toRealPath();
+    } catch (NoSuchFileException e) {
+      throw new IOException("File not found: " + localPath);
+    }
+    if (!path.startsWith(baseDir)) {
+      throw new IOException("Path is outside " + baseDir + ": " + localPath);
+    }
+    if (!Files.isRegularFile(path)) {
+      throw new IOException("Not a readable file: " + localPath);
+    }
+    return path;
+  }
+}
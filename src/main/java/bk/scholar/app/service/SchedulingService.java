@@ -0,0 +1,222 @@
+package bk.scholar.app.service;
+
+import bk.scholar.app.config.Utility;
+import bk.scholar.app.dto.BulkItemResult;
+import bk.scholar.app.dto.FreeSlotResult;
+import bk.scholar.app.dto.ScheduleResult;
+import bk.scholar.app.dto.TimeSlot;
+import bk.scholar.app.service.TimeSlots.Interval;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventAttendee;
+import com.google.api.services.calendar.model.FreeBusyCalendar;
+import com.google.api.services.calendar.model.FreeBusyRequest;
+import com.google.api.services.calendar.model.FreeBusyRequestItem;
+import com.google.api.services.calendar.model.FreeBusyResponse;
+import com.google.api.services.calendar.model.TimePeriod;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+/**
+ * Slot finder and bulk scheduler. Busy time of all participants comes from one
+ * {@code freebusy().query} per {@value #MAX_CALENDARS_PER_QUERY} calendars; the free slots are
+ * then computed locally, and booked sessions go out through {@link CalendarBatchService}.
+ */
+@Service
+public class SchedulingService {
+
+  private static final Logger log = LoggerFactory.getLogger(SchedulingService.class);
+  private static final String ORGANIZER = "primary";
+  // freebusy accepts at most 50 calendars per query (calendarExpansionMax)
+  private static final int MAX_CALENDARS_PER_QUERY = 50;
+  private static final Duration MAX_WINDOW = Duration.ofDays(60);
+  private static final Duration SLOT_STEP = Duration.ofMinutes(30);
+  private static final int DEFAULT_DURATION_MINUTES = 60;
+  private static final int MAX_SLOTS = 200;
+  private static final int MAX_SESSIONS = 100;
+  private static final LocalTime DEFAULT_DAY_START = LocalTime.of(9, 0);
+  private static final LocalTime DEFAULT_DAY_END = LocalTime.of(17, 0);
+  private static final String PARTICIPANTS_DESCRIPTION = "Calendar IDs or attendee emails to check; "
+      + "the organizer's primary calendar is always included";
+  private final ObjectProvider<Calendar> gCalendar;
+  private final GoogleApiExecutor googleApi;
+  private final CalendarBatchService calendarBatch;
+
+  public SchedulingService(ObjectProvider<Calendar> gCalendar, GoogleApiExecutor googleApi,
+      CalendarBatchService calendarBatch) {
+    this.gCalendar = gCalendar;
+    this.googleApi = googleApi;
+    this.calendarBatch = calendarBatch;
+  }
+
+  @Tool(name = "find_free_slots", description = "Find when all the given calendars or attendees are free within a window, "
+      + "using their free/busy information instead of listing events. Only working hours in Asia/Dhaka count. "
+      + "Returns free intervals of at least durationMinutes, earliest first")
+  public FreeSlotResult findFreeSlots(
+      @ToolParam(required = false, description = PARTICIPANTS_DESCRIPTION) List<String> participants,
+      @ToolParam(description = "Window start, yyyy-MM-dd or RFC 3339 timestamp") String windowStart,
+      @ToolParam(description = "Window end (exclusive), yyyy-MM-dd or RFC 3339 timestamp, at most 60 days after the start") String windowEnd,
+      @ToolParam(required = false, description = "Minimum free length in minutes, default 60") Integer durationMinutes,
+      @ToolParam(required = false, description = "Working day start, HH:mm, default 09:00") String workdayStart,
+      @ToolParam(required = false, description = "Working day end, HH:mm, default 17:00") String workdayEnd)
+      throws IOException {
+    log.debug("find_free_slots | participants: {}, window: {} - {}, durationMinutes: {}, workday: {} - {}",
+        participants == null ? 0 : participants.size(), windowStart, windowEnd, durationMinutes,
+        workdayStart, workdayEnd);
+    //findFreeSlots
+    Window window = Window.of(windowStart, windowEnd, durationMinutes, workdayStart, workdayEnd);
+    Busy busy = queryBusy(calendars(participants), window);
+    List<TimeSlot> slots = window.free(busy.periods).stream()
+        .limit(MAX_SLOTS)
+        .map(slot -> new TimeSlot(Utility.format(slot.start()), Utility.format(slot.end())))
+        .toList();
+    return new FreeSlotResult(slots, busy.unavailable);
+  }
+
+  @Tool(name = "schedule_sessions", description = "Book one or more sessions on the primary calendar at times when every "
+      + "participant is free, in one call. Sessions are placed earliest first during working hours in Asia/Dhaka, start on "
+      + "the hour or half hour, and invite the participants. Returns one result per booked session")
+  public ScheduleResult scheduleSessions(
+      @ToolParam(required = false, description = PARTICIPANTS_DESCRIPTION + "; emails are invited") List<String> participants,
+      String summary,
+      @ToolParam(description = "Window start, yyyy-MM-dd or RFC 3339 timestamp") String windowStart,
+      @ToolParam(description = "Window end (exclusive), yyyy-MM-dd or RFC 3339 timestamp, at most 60 days after the start") String windowEnd,
+      @ToolParam(required = false, description = "Session length in minutes, default 60") Integer durationMinutes,
+      @ToolParam(required = false, description = "Number of sessions to book, default 1, max 100") Integer sessions,
+      @ToolParam(required = false, description = "At most this many sessions on one day, default no limit") Integer maxPerDay,
+      @ToolParam(required = false, description = "Working day start, HH:mm, default 09:00") String workdayStart,
+      @ToolParam(required = false, description = "Working day end, HH:mm, default 17:00") String workdayEnd)
+      throws IOException {
+    log.debug("schedule_sessions | participants: {}, summary: {}, window: {} - {}, durationMinutes: {}, sessions: {}, maxPerDay: {}",
+        participants == null ? 0 : participants.size(), summary, windowStart, windowEnd,
+        durationMinutes, sessions, maxPerDay);
+    //scheduleSessions
+    Window window = Window.of(windowStart, windowEnd, durationMinutes, workdayStart, workdayEnd);
+    int count = sessions == null || sessions <= 0 ? 1 : Math.min(sessions, MAX_SESSIONS);
+    int perDay = maxPerDay == null || maxPerDay <= 0 ? Integer.MAX_VALUE : maxPerDay;
+    Set<String> calendars = calendars(participants);
+    Busy busy = queryBusy(calendars, window);
+    List<Interval> placed = TimeSlots.sessions(window.free(busy.periods), window.duration,
+        SLOT_STEP, count, perDay, Utility.DHAKA);
+
+    List<EventAttendee> attendees = calendars.stream()
+        .filter(calendar -> !ORGANIZER.equals(calendar))
+        .map(email -> new EventAttendee().setEmail(email))
+        .collect(Collectors.toList());
+    List<CalendarBatchService.Insert> events = new ArrayList<>();
+    for (Interval session : placed) {
+      events.add(new CalendarBatchService.Insert(Utility.format(session.start()), new Event()
+          .setSummary(summary)
+          .setLocation("Dhaka/Bangladesh")
+          .setStart(Utility.eventDateTime(session.start().atZone(Utility.DHAKA)))
+          .setEnd(Utility.eventDateTime(session.end().atZone(Utility.DHAKA)))
+          .setAttendees(attendees.isEmpty() ? null : attendees)));
+    }
+    List<BulkItemResult> booked = events.isEmpty() ? List.of()
+        : calendarBatch.insertEvents(ORGANIZER, events);
+    return new ScheduleResult(booked, count - placed.size(), busy.unavailable);
+  }
+
+  private Busy queryBusy(Set<String> calendars, Window window) throws IOException {
+    Busy busy = new Busy();
+    List<String> ids = new ArrayList<>(calendars);
+    for (int from = 0; from < ids.size(); from += MAX_CALENDARS_PER_QUERY) {
+      List<FreeBusyRequestItem> items = ids.subList(from,
+              Math.min(from + MAX_CALENDARS_PER_QUERY, ids.size())).stream()
+          .map(id -> new FreeBusyRequestItem().setId(id))
+          .toList();
+      FreeBusyResponse response = googleApi.execute(gCalendar.getObject().freebusy()
+          .query(new FreeBusyRequest()
+              .setTimeMin(new DateTime(window.start.toEpochMilli()))
+              .setTimeMax(new DateTime(window.end.toEpochMilli()))
+              .setItems(items)));
+      Map<String, FreeBusyCalendar> result = response.getCalendars() == null
+          ? Map.of() : response.getCalendars();
+      for (FreeBusyRequestItem item : items) {
+        FreeBusyCalendar calendar = result.get(item.getId());
+        if (calendar == null) {
+          busy.unavailable.add(item.getId() + ": not returned");
+        } else if (calendar.getErrors() != null && !calendar.getErrors().isEmpty()) {
+          busy.unavailable.add(item.getId() + ": " + calendar.getErrors().get(0).getReason());
+        } else if (calendar.getBusy() != null) {
+          for (TimePeriod period : calendar.getBusy()) {
+            busy.periods.add(new Interval(Instant.ofEpochMilli(period.getStart().getValue()),
+                Instant.ofEpochMilli(period.getEnd().getValue())));
+          }
+        }
+      }
+    }
+    log.info("Free/busy | calendars: {}, queries: {}, busy periods: {}", ids.size(),
+        (ids.size() + MAX_CALENDARS_PER_QUERY - 1) / MAX_CALENDARS_PER_QUERY, busy.periods.size());
+    return busy;
+  }
+
+  private static Set<String> calendars(List<String> participants) {
+    Set<String> calendars = new LinkedHashSet<>();
+    calendars.add(ORGANIZER);
+    if (participants != null) {
+      participants.stream()
+          .filter(participant -> participant != null && !participant.isBlank())
+          .map(String::trim)
+          .forEach(calendars::add);
+    }
+    return calendars;
+  }
+
+  private static final class Busy {
+
+    private final List<Interval> periods = new ArrayList<>();
+    private final List<String> unavailable = new ArrayList<>();
+  }
+
+  private record Window(Instant start, Instant end, Duration duration, LocalTime dayStart,
+                        LocalTime dayEnd) {
+
+    static Window of(String windowStart, String windowEnd, Integer durationMinutes,
+        String workdayStart, String workdayEnd) {
+      DateTime start = Utility.toDateTime(windowStart);
+      DateTime end = Utility.toDateTime(windowEnd);
+      if (start == null || end == null) {
+        throw new IllegalArgumentException("windowStart and windowEnd are required");
+      }
+      Window window = new Window(Instant.ofEpochMilli(start.getValue()),
+          Instant.ofEpochMilli(end.getValue()),
+          Duration.ofMinutes(durationMinutes == null || durationMinutes <= 0
+              ? DEFAULT_DURATION_MINUTES : durationMinutes),
+          workdayStart == null || workdayStart.isBlank() ? DEFAULT_DAY_START
+              : LocalTime.parse(workdayStart.trim()),
+          workdayEnd == null || workdayEnd.isBlank() ? DEFAULT_DAY_END
+              : LocalTime.parse(workdayEnd.trim()));
+      if (!window.end.isAfter(window.start)) {
+        throw new IllegalArgumentException("windowEnd must be after windowStart");
+      }
+      if (Duration.between(window.start, window.end).compareTo(MAX_WINDOW) > 0) {
+        throw new IllegalArgumentException("The window can be at most 60 days");
+      }
+      if (!window.dayEnd.isAfter(window.dayStart)) {
+        throw new IllegalArgumentException("workdayEnd must be after workdayStart");
+      }
+      return window;
+    }
+
+    List<Interval> free(List<Interval> busy) {
+      return TimeSlots.free(TimeSlots.merge(busy), start, end, Utility.DHAKA, dayStart, dayEnd,
+          duration);
+    }
+  }
+}
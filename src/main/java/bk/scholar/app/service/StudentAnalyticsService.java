@@ -0,0 +1,112 @@
+package bk.scholar.app.service;
+
+import bk.scholar.app.dto.GroupCount;
+import bk.scholar.app.dto.StudentField;
+import bk.scholar.app.dto.StudentFilter;
+import bk.scholar.app.dto.StudentItem;
+import bk.scholar.app.dto.StudentPage;
+import bk.scholar.app.pepository.StudentRepository;
+import java.util.List;
+import java.util.Locale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Counting, grouping and filtering tools for the student table. All of the work is done by
+ * {@code WHERE} / {@code GROUP BY} queries so only the small result set leaves the database.
+ */
+@Service
+@Transactional(readOnly = true)
+public class StudentAnalyticsService {
+
+  private static final Logger log = LoggerFactory.getLogger(StudentAnalyticsService.class);
+  private static final int DEFAULT_PAGE_SIZE = 100;
+  private static final int MAX_PAGE_SIZE = 500;
+  private static final int MAX_GROUPS = 200;
+  private final StudentRepository studentRepository;
+
+  public StudentAnalyticsService(StudentRepository studentRepository) {
+    this.studentRepository = studentRepository;
+  }
+
+  @Tool(name = "count_students", description = "Count students, optionally only those matching city, gender and/or insertion method")
+  public long countStudents(
+      @ToolParam(required = false, description = "Exact city, case-insensitive") String city,
+      @ToolParam(required = false, description = "Exact gender, case-insensitive") String gender,
+      @ToolParam(required = false, description = "Exact insertion method, case-insensitive") String insertionMethod) {
+    log.debug("count_students | city: {}, gender: {}, insertionMethod: {}", city, gender, insertionMethod);
+    return studentRepository.countMatching(filterValue(city), filterValue(gender),
+        filterValue(insertionMethod));
+  }
+
+  @Tool(name = "group_students", description = "Count students per distinct value of one column: city, gender or insertion_method. "
+      + "Optional filters apply to the other columns. Largest groups first")
+  public List<GroupCount> groupStudents(
+      @ToolParam(description = "Column to group by: city, gender or insertion_method") String groupBy,
+      @ToolParam(required = false, description = "Exact city filter, case-insensitive") String city,
+      @ToolParam(required = false, description = "Exact gender filter, case-insensitive") String gender,
+      @ToolParam(required = false, description = "Exact insertion method filter, case-insensitive") String insertionMethod,
+      @ToolParam(required = false, description = "Maximum number of groups, default and max 200") Integer limit) {
+    log.debug("group_students | groupBy: {}, city: {}, gender: {}, insertionMethod: {}, limit: {}",
+        groupBy, city, gender, insertionMethod, limit);
+    Limit groups = Limit.of(limit == null || limit <= 0 ? MAX_GROUPS : Math.min(limit, MAX_GROUPS));
+    String column = groupBy == null ? "" : groupBy.trim().toLowerCase(Locale.ROOT);
+    return switch (column) {
+      case "city" -> studentRepository.countByCity(filterValue(gender),
+          filterValue(insertionMethod), groups);
+      case "gender" -> studentRepository.countByGender(filterValue(city),
+          filterValue(insertionMethod), groups);
+      case "insertion_method", "method" -> studentRepository.countByMethod(filterValue(city),
+          filterValue(gender), groups);
+      default -> throw new IllegalArgumentException(
+          "groupBy must be one of city, gender, insertion_method but was: " + groupBy);
+    };
+  }
+
+  @Tool(name = "filter_students", description = "Find students matching all given filters, one page at a time ordered by ID. "
+      + "Pass the returned nextCursor as afterId to read the next page")
+  public StudentPage filterStudents(
+      @ToolParam(required = false, description = "Exact city, case-insensitive") String city,
+      @ToolParam(required = false, description = "Exact gender, case-insensitive") String gender,
+      @ToolParam(required = false, description = "Exact insertion method, case-insensitive") String insertionMethod,
+      @ToolParam(required = false, description = "Text the name contains, case-insensitive") String nameContains,
+      @ToolParam(required = false, description = "Text the email contains, case-insensitive") String emailContains,
+      @ToolParam(required = false, description = "Last student ID seen, omit for the first page") Long afterId,
+      @ToolParam(required = false, description = "Page size, default 100, max 500") Integer pageSize,
+      @ToolParam(required = false, description = StudentService.FIELDS_DESCRIPTION) List<String> fields,
+      @ToolParam(required = false, description = StudentService.FORMAT_DESCRIPTION) String format) {
+    log.debug("filter_students | city: {}, gender: {}, insertionMethod: {}, nameContains: {}, emailContains: {}, afterId: {}, pageSize: {}, fields: {}, format: {}",
+        city, gender, insertionMethod, nameContains, emailContains, afterId, pageSize, fields, format);
+    int size = pageSize == null || pageSize <= 0 ? DEFAULT_PAGE_SIZE : Math.min(pageSize, MAX_PAGE_SIZE);
+    long cursor = afterId == null ? 0L : afterId;
+    List<StudentField> selected = StudentField.parse(fields);
+    boolean table = StudentPage.isTable(format);
+    StudentFilter filter = new StudentFilter(filterValue(city), filterValue(gender),
+        filterValue(insertionMethod), containsPattern(nameContains), containsPattern(emailContains));
+    List<StudentItem> rows = selected == null
+        ? studentRepository.findMatchingAfter(cursor, filter.city(), filter.gender(),
+            filter.method(), filter.nameLike(), filter.emailLike(), Limit.of(size + 1))
+        : studentRepository.findSelectedAfter(cursor, filter, selected, size + 1);
+    return StudentPage.of(rows, size, selected, table);
+  }
+
+  // Lower-cased here; the queries compare against lower(column)
+  private static String filterValue(String value) {
+    return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static String containsPattern(String value) {
+    String trimmed = filterValue(value);
+    if (trimmed == null) {
+      return null;
+    }
+    String escaped = trimmed
+        .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    return "%" + escaped + "%";
+  }
+}
@@ -0,0 +1,61 @@
+package bk.scholar.app.service;
+
+import bk.scholar.app.dto.CacheStatistics;
+import bk.scholar.app.dto.StudentItem;
+import bk.scholar.app.pepository.StudentRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Size- and TTL-bounded read-through cache of {@link StudentItem} snapshots keyed by student id.
+ * Immutable DTOs are cached rather than entities so cached values never drag a persistence
+ * context along. Missing ids are not cached.
+ */
+@Component
+public class StudentCache {
+
+  private static final Logger log = LoggerFactory.getLogger(StudentCache.class);
+  private final StudentRepository studentRepository;
+  private final Cache<Long, StudentItem> cache;
+
+  public StudentCache(StudentRepository studentRepository,
+      @Value("${scholar.student-cache.max-size:10000}") long maxSize,
+      @Value("${scholar.student-cache.ttl:PT10M}") Duration ttl) {
+    this.studentRepository = studentRepository;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build();
+    log.info("Student cache | maxSize: {}, ttl: {}", maxSize, ttl);
+  }
+
+  public StudentItem get(Long id) {
+    if (id == null) {
+      return null;
+    }
+    return cache.get(id, key -> studentRepository.findItemById(key).orElse(null));
+  }
+
+  public void invalidate(Long id) {
+    if (id != null) {
+      cache.invalidate(id);
+    }
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  public CacheStatistics statistics() {
+    CacheStats stats = cache.stats();
+    return new CacheStatistics(cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+        stats.evictionCount(), stats.hitRate());
+  }
+}
@@ -0,0 +1,32 @@
+package bk.scholar.app.service;
+
+import bk.scholar.app.domain.Student;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that drops the cached snapshot of a {@link Student} whenever it is written
+ * through the persistence context. It is attached in {@code META-INF/orm.xml} so the entity does
+ * not depend on the service layer. Hibernate resolves it as a Spring bean while the entity
+ * manager factory is still being built, so the cache (which needs the repository) is looked up
+ * on first write.
+ */
+@Component
+public class StudentCacheInvalidator {
+
+  private final ObjectProvider<StudentCache> studentCache;
+
+  public StudentCacheInvalidator(ObjectProvider<StudentCache> studentCache) {
+    this.studentCache = studentCache;
+  }
+
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  public void onWrite(Student student) {
+    studentCache.getObject().invalidate(student.getId());
+  }
+}
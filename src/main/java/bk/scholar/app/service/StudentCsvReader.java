@@ -0,0 +1,121 @@
+package bk.scholar.app.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 reader: comma separated, fields optionally quoted, {@code ""} for a quote
+ * inside a quoted field, and line breaks allowed inside quotes. One record is held at a time.
+ */
+class StudentCsvReader implements Closeable {
+
+  private final Reader reader;
+  private final char[] buffer = new char[64 * 1024];
+  private int position;
+  private int limit;
+  private long line = 1;
+  private long recordLine;
+
+  StudentCsvReader(Reader reader) {
+    this.reader = reader;
+  }
+
+  /**
+   * @return the fields of the next record, or null at end of input
+   */
+  List<String> next() throws IOException {
+    int c = read();
+    // Skip blank lines between records
+    while (c == '\r' || c == '\n') {
+      c = read();
+    }
+    if (c == -1) {
+      return null;
+    }
+    recordLine = line;
+    List<String> fields = new ArrayList<>(6);
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    boolean fieldStart = true;
+    while (true) {
+      if (quoted) {
+        if (c == -1) {
+          throw new IOException("Unterminated quoted field starting on line " + recordLine);
+        }
+        if (c == '"') {
+          int after = read();
+          if (after == '"') {
+            field.append('"');
+          } else {
+            quoted = false;
+            c = after;
+            continue;
+          }
+        } else {
+          field.append((char) c);
+        }
+      } else if (c == '"' && fieldStart) {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+        fieldStart = true;
+        c = read();
+        continue;
+      } else if (c == '\n' || c == '\r' || c == -1) {
+        if (c == '\r' && peek() == '\n') {
+          read();
+        }
+        fields.add(field.toString());
+        return fields;
+      } else {
+        field.append((char) c);
+      }
+      fieldStart = false;
+      c = read();
+    }
+  }
+
+  /**
+   * @return line on which the record last returned by {@link #next()} started
+   */
+  long recordLine() {
+    return recordLine;
+  }
+
+  private int read() throws IOException {
+    if (position == limit && !fill()) {
+      return -1;
+    }
+    char c = buffer[position++];
+    if (c == '\n') {
+      line++;
+    }
+    return c;
+  }
+
+  private int peek() throws IOException {
+    if (position == limit && !fill()) {
+      return -1;
+    }
+    return buffer[position];
+  }
+
+  private boolean fill() throws IOException {
+    int read = reader.read(buffer, 0, buffer.length);
+    if (read <= 0) {
+      return false;
+    }
+    position = 0;
+    limit = read;
+    return true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
@@ -0,0 +1,255 @@
+package bk.scholar.app.service;
+
+import bk.scholar.app.dto.StudentImportResult;
+import com.google.api.services.drive.Drive;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Bulk student import from CSV. Rows are validated while streaming and sent with PostgreSQL
+ * {@code COPY} into a temporary staging table, then moved into {@code student} with one
+ * set-based insert that drops duplicate emails. Nothing goes through JPA, so {@code IDENTITY}
+ * ids do not turn the load into one round trip per row.
+ */
+@Service
+public class StudentImportService {
+
+  private static final Logger log = LoggerFactory.getLogger(StudentImportService.class);
+  private static final int MAX_REPORTED_ERRORS = 20;
+  private static final String DEFAULT_METHOD = "CSV";
+  private static final String CREATE_STAGING = """
+      create temporary table student_import (
+          line bigint not null,
+          name varchar(100) not null,
+          email varchar(150) not null,
+          gender varchar(10) not null,
+          city varchar(50) not null,
+          insertion_method varchar(50)
+      ) on commit drop""";
+  private static final String COPY_STAGING = """
+      copy student_import (line, name, email, gender, city, insertion_method)
+      from stdin with (format csv)""";
+  // First occurrence of an email in the file wins; existing emails are left untouched
+  private static final String MERGE_STAGING = """
+      insert into student (name, email, gender, city, insertion_method)
+      select distinct on (email) name, email, gender, city, insertion_method
+      from student_import
+      order by email, line
+      on conflict (email) do nothing""";
+  private final DataSource dataSource;
+  private final ObjectProvider<Drive> gDrive;
+  private final GoogleApiExecutor googleApi;
+  private final Path baseDir;
+
+  public StudentImportService(DataSource dataSource, ObjectProvider<Drive> gDrive,
+      GoogleApiExecutor googleApi,
+      @Value("${scholar.student-import.base-dir:}") String baseDir) {
+    this.dataSource = dataSource;
+    this.gDrive = gDrive;
+    this.googleApi = googleApi;
+    this.baseDir = LocalFiles.baseDir("scholar.student-import.base-dir", baseDir);
+  }
+
+  @Tool(name = "import_students_from_csv", description = "Bulk import students from a UTF-8 CSV file, "
+      + "either a local path or a Google Drive file ID. Columns: name, email, gender, city and optionally insertion_method; "
+      + "a header row naming them may list them in any order. Invalid rows and emails that already exist are skipped")
+  public StudentImportResult importFromCsv(
+      @ToolParam(required = false, description = "Local CSV path, must be under the import directory") String localPath,
+      @ToolParam(required = false, description = "Google Drive file ID of the CSV") String driveFileId,
+      @ToolParam(required = false, description = "insertion_method for rows that do not set one, default CSV") String insertionMethod)
+      throws IOException, SQLException {
+    log.debug("import_students_from_csv | localPath: {}, driveFileId: {}, insertionMethod: {}",
+        localPath, driveFileId, insertionMethod);
+    boolean local = localPath != null && !localPath.isBlank();
+    boolean remote = driveFileId != null && !driveFileId.isBlank();
+    if (local == remote) {
+      throw new IllegalArgumentException("Give exactly one of localPath or driveFileId");
+    }
+    String method = insertionMethod == null || insertionMethod.isBlank()
+        ? DEFAULT_METHOD : insertionMethod.trim();
+    try (InputStream in = local ? Files.newInputStream(resolveLocal(localPath)) : download(driveFileId)) {
+      return load(in, method);
+    }
+  }
+
+  StudentImportResult load(InputStream in, String defaultMethod) throws IOException, SQLException {
+    long started = System.nanoTime();
+    try (Connection connection = dataSource.getConnection()) {
+      PGConnection postgres = connection.isWrapperFor(PGConnection.class)
+          ? connection.unwrap(PGConnection.class) : null;
+      if (postgres == null) {
+        throw new IllegalStateException("Student import needs PostgreSQL (COPY)");
+      }
+      boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try (Statement statement = connection.createStatement()) {
+        statement.execute(CREATE_STAGING);
+        Staged staged = copyRows(postgres, in, defaultMethod);
+        int inserted = statement.executeUpdate(MERGE_STAGING);
+        connection.commit();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("Student import done | read: {}, valid: {}, inserted: {}, elapsed: {} ms",
+            staged.read, staged.valid, inserted, elapsed);
+        return new StudentImportResult(staged.read, staged.valid, inserted,
+            staged.valid - inserted, elapsed, staged.errors);
+      } catch (IOException | SQLException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    }
+  }
+
+  private Staged copyRows(PGConnection postgres, InputStream in, String defaultMethod)
+      throws IOException, SQLException {
+    Staged staged = new Staged();
+    StudentCsvReader csv = new StudentCsvReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    List<String> first = csv.next();
+    if (first == null) {
+      return staged;
+    }
+    if (!first.isEmpty() && first.get(0).startsWith("\uFEFF")) {
+      first.set(0, first.get(0).substring(1));
+    }
+    Columns columns = Columns.fromHeader(first);
+    try (Writer copy = new BufferedWriter(new OutputStreamWriter(
+        new PGCopyOutputStream(postgres, COPY_STAGING, 1 << 16), StandardCharsets.UTF_8), 1 << 16)) {
+      List<String> record = columns.header ? csv.next() : first;
+      while (record != null) {
+        staged.read++;
+        String error = columns.stage(record, csv.recordLine(), defaultMethod, copy);
+        if (error == null) {
+          staged.valid++;
+        } else if (staged.errors.size() < MAX_REPORTED_ERRORS) {
+          staged.errors.add("line " + csv.recordLine() + ": " + error);
+        }
+        record = csv.next();
+      }
+    }
+    return staged;
+  }
+
+  private InputStream download(String fileId) throws IOException {
+    Drive.Files.Get request = gDrive.getObject().files().get(fileId);
+    return googleApi.execute("GET Drive.Files.Get media", 1, true,
+        request::executeMediaAsInputStream);
+  }
+
+  private Path resolveLocal(String localPath) throws IOException {
+    return LocalFiles.resolve(baseDir, localPath);
+  }
+
+  private static final class Staged {
+
+    private long read;
+    private long valid;
+    private final List<String> errors = new ArrayList<>();
+  }
+
+  /**
+   * Position of each student column in a record, from the header row or the default order.
+   */
+  private record Columns(boolean header, int name, int email, int gender, int city, int method) {
+
+    static Columns fromHeader(List<String> first) {
+      List<String> names = first.stream().map(v -> v.trim().toLowerCase(Locale.ROOT)).toList();
+      if (!names.contains("email")) {
+        return new Columns(false, 0, 1, 2, 3, 4);
+      }
+      int method = names.indexOf("insertion_method");
+      return new Columns(true, names.indexOf("name"), names.indexOf("email"),
+          names.indexOf("gender"), names.indexOf("city"),
+          method >= 0 ? method : names.indexOf("method"));
+    }
+
+    /**
+     * Validates one record and writes it as a COPY csv line.
+     *
+     * @return the validation error, or null when the row was staged
+     */
+    String stage(List<String> record, long line, String defaultMethod, Writer copy)
+        throws IOException {
+      String name = value(record, this.name);
+      String email = value(record, this.email);
+      String gender = value(record, this.gender);
+      String city = value(record, this.city);
+      String method = value(record, this.method);
+      String error = check("name", name, 100);
+      if (error == null) {
+        error = check("email", email, 150);
+      }
+      if (error == null && (email.indexOf('@') < 1 || email.indexOf('@') == email.length() - 1)) {
+        error = "email is not an address: " + email;
+      }
+      if (error == null) {
+        error = check("gender", gender, 10);
+      }
+      if (error == null) {
+        error = check("city", city, 50);
+      }
+      if (method == null) {
+        method = defaultMethod;
+      }
+      if (error == null && method.length() > 50) {
+        error = "insertion_method is longer than 50 characters";
+      }
+      if (error != null) {
+        return error;
+      }
+      copy.write(Long.toString(line));
+      for (String field : new String[]{name, email, gender, city, method}) {
+        copy.write(',');
+        writeQuoted(copy, field);
+      }
+      copy.write('\n');
+      return null;
+    }
+
+    private static String value(List<String> record, int index) {
+      if (index < 0 || index >= record.size()) {
+        return null;
+      }
+      String value = record.get(index).trim();
+      return value.isEmpty() ? null : value;
+    }
+
+    private static String check(String column, String value, int maxLength) {
+      if (value == null) {
+        return column + " is missing";
+      }
+      return value.length() > maxLength
+          ? column + " is longer than " + maxLength + " characters" : null;
+    }
+
+    private static void writeQuoted(Writer out, String value) throws IOException {
+      out.write('"');
+      out.write(value.replace("\"", "\"\""));
+      out.write('"');
+    }
+  }
+}
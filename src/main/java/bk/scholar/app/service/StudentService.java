@@ -1,34 +1,113 @@
 package bk.scholar.app.service;
 
-import bk.scholar.app.domain.Student;
+import bk.scholar.app.dto.CacheStatistics;
+import bk.scholar.app.dto.StudentField;
+import bk.scholar.app.dto.StudentFilter;
+import bk.scholar.app.dto.StudentItem;
+import bk.scholar.app.dto.StudentPage;
 import bk.scholar.app.pepository.StudentRepository;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class StudentService {
 
   private static final Logger log = LoggerFactory.getLogger(StudentService.class);
+  private static final int DEFAULT_PAGE_SIZE = 100;
+  private static final int MAX_PAGE_SIZE = 500;
+  private static final int DEFAULT_SEARCH_LIMIT = 10;
+  private static final int MAX_SEARCH_LIMIT = 50;
+  private static final int SEARCH_CANDIDATES = 1000;
+  // Characters that are tsquery syntax, or otherwise never part of a name, email or city
+  private static final Pattern NOT_SEARCHABLE = Pattern.compile("[^\\p{L}\\p{N}@._-]");
+  private static final Pattern SEARCHABLE_TERM = Pattern.compile(".*[\\p{L}\\p{N}].*");
+  static final String FIELDS_DESCRIPTION = "Only return these fields, any of id, name, email, "
+      + "gender, city, method; id is always included. Default all";
+  static final String FORMAT_DESCRIPTION = "objects (default), or table: column names once in "
+      + "columns and one value array per student in rows";
   private final StudentRepository studentRepository;
+  private final StudentCache studentCache;
 
-  public StudentService(StudentRepository studentRepository) {
+  public StudentService(StudentRepository studentRepository, StudentCache studentCache) {
     this.studentRepository = studentRepository;
+    this.studentCache = studentCache;
   }
 
   @Tool(name = "find_a_student", description = "Get a student by its ID")
-  public Student findById(Long id) {
-    log.info("find_a_student | Student: {}", id);
-    return studentRepository.findById(id).orElse(null);
+  public StudentItem findById(Long id,
+      @ToolParam(required = false, description = FIELDS_DESCRIPTION) List<String> fields) {
+    log.debug("find_a_student | Student: {}, fields: {}", id, fields);
+    List<StudentField> selected = StudentField.parse(fields);
+    StudentItem student = studentCache.get(id);
+    return student == null ? null : student.only(selected);
   }
 
-  @Tool(name = "retrieve_students", description = "Get all students")
-  public List<Student> findAllStudents() {
-    log.info("find_all_student | Get all students");
-    return studentRepository.findAll();
+  @Tool(name = "student_cache_statistics", description = "Get size, hit, miss and eviction counters of the find_a_student cache")
+  public CacheStatistics cacheStatistics() {
+    log.debug("student_cache_statistics | Called");
+    return studentCache.statistics();
   }
 
+  @Tool(name = "retrieve_students", description = "Get students one page at a time, ordered by ID. "
+      + "Pass the returned nextCursor as afterId to read the next page; nextCursor is null on the last page")
+  @Transactional(readOnly = true)
+  public StudentPage findAllStudents(
+      @ToolParam(required = false, description = "Last student ID seen, omit for the first page") Long afterId,
+      @ToolParam(required = false, description = "Page size, default 100, max 500") Integer pageSize,
+      @ToolParam(required = false, description = FIELDS_DESCRIPTION) List<String> fields,
+      @ToolParam(required = false, description = FORMAT_DESCRIPTION) String format) {
+    log.debug("retrieve_students | afterId: {}, pageSize: {}, fields: {}, format: {}",
+        afterId, pageSize, fields, format);
+    int size = pageSize == null || pageSize <= 0 ? DEFAULT_PAGE_SIZE : Math.min(pageSize, MAX_PAGE_SIZE);
+    long cursor = afterId == null ? 0L : afterId;
+    List<StudentField> selected = StudentField.parse(fields);
+    boolean table = StudentPage.isTable(format);
+
+    // Ask for one extra row to learn whether another page exists without a count query
+    List<StudentItem> rows = selected == null
+        ? studentRepository.findPageAfter(cursor, Limit.of(size + 1))
+        : studentRepository.findSelectedAfter(cursor, StudentFilter.NONE, selected, size + 1);
+    return StudentPage.of(rows, size, selected, table);
+  }
+
+  @Tool(name = "search_students", description = "Search students by name, email and city, best match first. "
+      + "Words match as prefixes and may mix fields (e.g. 'mike chicago'); close misspellings of a name or email also match")
+  @Transactional(readOnly = true)
+  public List<StudentItem> search(
+      @ToolParam(description = "Words to look for in name, email or city") String query,
+      @ToolParam(required = false, description = "Maximum results, default 10, max 50") Integer limit,
+      @ToolParam(required = false, description = FIELDS_DESCRIPTION) List<String> fields) {
+    log.debug("search_students | query: {}, limit: {}, fields: {}", query, limit, fields);
+    if (query == null || query.isBlank()) {
+      throw new IllegalArgumentException("query must not be blank");
+    }
+    int size = limit == null || limit <= 0 ? DEFAULT_SEARCH_LIMIT : Math.min(limit, MAX_SEARCH_LIMIT);
+    List<StudentField> selected = StudentField.parse(fields);
+    String text = query.trim().toLowerCase(Locale.ROOT);
+    return studentRepository.search(text, prefixTerms(text), SEARCH_CANDIDATES, size).stream()
+        .map(student -> student.only(selected))
+        .toList();
+  }
+
+  /**
+   * {@code to_tsquery} input requiring every word as a prefix: {@code mike:* & chicago:*}.
+   */
+  static String prefixTerms(String text) {
+    return Arrays.stream(text.split("\\s+"))
+        .map(word -> NOT_SEARCHABLE.matcher(word).replaceAll(""))
+        .filter(word -> SEARCHABLE_TERM.matcher(word).matches())
+        .map(word -> word + ":*")
+        .collect(Collectors.joining(" & "));
+  }
 
 }
@@ -0,0 +1,129 @@
+package bk.scholar.app.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interval arithmetic behind the slot finder: merging busy periods from many calendars,
+ * taking the free gaps inside working hours, and placing sessions into those gaps.
+ */
+final class TimeSlots {
+
+  record Interval(Instant start, Instant end) {}
+
+  private TimeSlots() {
+  }
+
+  /**
+   * Sorts the busy periods and merges the ones that overlap or touch.
+   */
+  static List<Interval> merge(List<Interval> busy) {
+    List<Interval> sorted = new ArrayList<>(busy);
+    sorted.sort(Comparator.comparing(Interval::start));
+    List<Interval> merged = new ArrayList<>();
+    for (Interval interval : sorted) {
+      if (!interval.end().isAfter(interval.start())) {
+        continue;
+      }
+      int last = merged.size() - 1;
+      if (last >= 0 && !interval.start().isAfter(merged.get(last).end())) {
+        if (interval.end().isAfter(merged.get(last).end())) {
+          merged.set(last, new Interval(merged.get(last).start(), interval.end()));
+        }
+      } else {
+        merged.add(interval);
+      }
+    }
+    return merged;
+  }
+
+  /**
+   * Free gaps of at least {@code minimum} between {@code from} and {@code to}, limited to
+   * {@code dayStart}-{@code dayEnd} on each day in {@code zone}.
+   *
+   * @param busy merged busy periods, as returned by {@link #merge(List)}
+   */
+  static List<Interval> free(List<Interval> busy, Instant from, Instant to, ZoneId zone,
+      LocalTime dayStart, LocalTime dayEnd, Duration minimum) {
+    List<Interval> free = new ArrayList<>();
+    int next = 0;
+    LocalDate last = to.atZone(zone).toLocalDate();
+    for (LocalDate day = from.atZone(zone).toLocalDate(); !day.isAfter(last); day = day.plusDays(1)) {
+      Instant cursor = max(from, day.atTime(dayStart).atZone(zone).toInstant());
+      Instant end = min(to, day.atTime(dayEnd).atZone(zone).toInstant());
+      if (!end.isAfter(cursor)) {
+        continue;
+      }
+      // Busy periods that ended before this window can be dropped for every later day too
+      while (next < busy.size() && !busy.get(next).end().isAfter(cursor)) {
+        next++;
+      }
+      for (int i = next; i < busy.size() && busy.get(i).start().isBefore(end); i++) {
+        Interval period = busy.get(i);
+        if (period.start().isAfter(cursor)) {
+          add(free, cursor, period.start(), minimum);
+        }
+        cursor = max(cursor, period.end());
+      }
+      add(free, cursor, end, minimum);
+    }
+    return free;
+  }
+
+  /**
+   * Places up to {@code count} back-to-back sessions into the free gaps, earliest first, each
+   * starting on a multiple of {@code step} from midnight and at most {@code maxPerDay} a day.
+   */
+  static List<Interval> sessions(List<Interval> free, Duration duration, Duration step,
+      int count, int maxPerDay, ZoneId zone) {
+    List<Interval> sessions = new ArrayList<>();
+    Map<LocalDate, Integer> perDay = new HashMap<>();
+    for (Interval gap : free) {
+      Instant start = alignUp(gap.start(), step, zone);
+      while (sessions.size() < count && !start.plus(duration).isAfter(gap.end())) {
+        LocalDate day = start.atZone(zone).toLocalDate();
+        if (perDay.getOrDefault(day, 0) >= maxPerDay) {
+          break;
+        }
+        sessions.add(new Interval(start, start.plus(duration)));
+        perDay.merge(day, 1, Integer::sum);
+        start = alignUp(start.plus(duration), step, zone);
+      }
+      if (sessions.size() == count) {
+        break;
+      }
+    }
+    return sessions;
+  }
+
+  private static Instant alignUp(Instant instant, Duration step, ZoneId zone) {
+    ZonedDateTime midnight = instant.atZone(zone).toLocalDate().atStartOfDay(zone);
+    long stepMillis = step.toMillis();
+    long sinceMidnight = Duration.between(midnight, instant.atZone(zone)).toMillis();
+    long aligned = (sinceMidnight + stepMillis - 1) / stepMillis * stepMillis;
+    return midnight.toInstant().plusMillis(aligned);
+  }
+
+  private static void add(List<Interval> free, Instant start, Instant end, Duration minimum) {
+    if (end.isAfter(start) && Duration.between(start, end).compareTo(minimum) >= 0) {
+      free.add(new Interval(start, end));
+    }
+  }
+
+  private static Instant max(Instant a, Instant b) {
+    return a.isAfter(b) ? a : b;
+  }
+
+  private static Instant min(Instant a, Instant b) {
+    return a.isBefore(b) ? a : b;
+  }
+}
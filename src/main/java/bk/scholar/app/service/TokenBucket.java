@@ -0,0 +1,44 @@
+package bk.scholar.app.service;
+
+/**
+ * Token bucket that hands out reservations instead of blocking: callers take their permits
+ * immediately (the balance may go negative) and sleep for the returned delay, which keeps
+ * callers in arrival order without a queue.
+ */
+class TokenBucket {
+
+  private final double permitsPerNano;
+  private final double capacity;
+  private double available;
+  private long lastRefillNanos;
+
+  TokenBucket(double permitsPerSecond, double burst) {
+    this.permitsPerNano = permitsPerSecond / 1_000_000_000d;
+    this.capacity = Math.max(1, burst);
+    this.available = this.capacity;
+    this.lastRefillNanos = System.nanoTime();
+  }
+
+  /**
+   * @return nanoseconds the caller must wait before using the reserved permits
+   */
+  synchronized long reserve(int permits) {
+    refill();
+    available -= permits;
+    return available >= 0 ? 0 : (long) Math.ceil(-available / permitsPerNano);
+  }
+
+  /**
+   * Returns permits of a reservation that will not be used.
+   */
+  synchronized void cancel(int permits) {
+    refill();
+    available = Math.min(capacity, available + permits);
+  }
+
+  private void refill() {
+    long now = System.nanoTime();
+    available = Math.min(capacity, available + (now - lastRefillNanos) * permitsPerNano);
+    lastRefillNanos = now;
+  }
+}
@@ -0,0 +1,251 @@
+package bk.scholar.app.service;
+
+import bk.scholar.app.dto.ToolCallRecord;
+import bk.scholar.app.dto.ToolLatency;
+import bk.scholar.app.dto.ToolLatencyReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Structured journal of tool calls. Callers only offer a record to a bounded queue; when the
+ * queue is full the record is dropped and counted, so a slow disk never slows a tool call down.
+ * A single writer thread drains the queue in batches, appends them as JSON lines to the journal
+ * file, and keeps the most recent calls in memory for {@code tool_call_latency}.
+ */
+@Service
+public class ToolCallJournal {
+
+  private static final Logger log = LoggerFactory.getLogger(ToolCallJournal.class);
+  private static final int MAX_ARGUMENT_CHARS = 512;
+  private final ObjectMapper objectMapper;
+  private final BlockingQueue<ToolCallRecord> queue;
+  private final int batchSize;
+  private final Duration flushInterval;
+  private final Path file;
+  private final long maxFileBytes;
+  private final ToolCallRecord[] recent;
+  private int recentNext;
+  private long recentCount;
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong written = new AtomicLong();
+  private final Thread writerThread;
+  private volatile boolean running = true;
+  private Writer writer;
+
+  public ToolCallJournal(ObjectMapper objectMapper, MeterRegistry registry,
+      @Value("${scholar.tool-journal.file:}") String file,
+      @Value("${scholar.tool-journal.capacity:8192}") int capacity,
+      @Value("${scholar.tool-journal.batch-size:512}") int batchSize,
+      @Value("${scholar.tool-journal.flush-interval:PT1S}") Duration flushInterval,
+      @Value("${scholar.tool-journal.max-file-size:67108864}") long maxFileBytes,
+      @Value("${scholar.tool-journal.recent:10000}") int recentSize) {
+    this.objectMapper = objectMapper;
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.batchSize = batchSize;
+    this.flushInterval = flushInterval;
+    this.file = file == null || file.isBlank() ? null : Paths.get(file).toAbsolutePath();
+    this.maxFileBytes = maxFileBytes;
+    this.recent = new ToolCallRecord[recentSize];
+    FunctionCounter.builder("scholar.tool.journal.dropped", dropped, AtomicLong::get)
+        .description("Tool calls not journaled because the queue was full")
+        .register(registry);
+    FunctionCounter.builder("scholar.tool.journal.written", written, AtomicLong::get)
+        .register(registry);
+    Gauge.builder("scholar.tool.journal.queue", queue, BlockingQueue::size).register(registry);
+    this.writerThread = Thread.ofPlatform().daemon().name("tool-journal").start(this::drain);
+    log.info("Tool call journal | file: {}, capacity: {}, batchSize: {}, flushInterval: {}",
+        this.file, capacity, batchSize, flushInterval);
+  }
+
+  /**
+   * Queues one call for the journal; never blocks.
+   */
+  public void record(String tool, String arguments, long startedAtMillis, long durationNanos,
+      String outcome, String exception, int requestBytes, int responseBytes) {
+    String shown = arguments;
+    String hash = null;
+    if (arguments != null && arguments.length() > MAX_ARGUMENT_CHARS) {
+      shown = arguments.substring(0, MAX_ARGUMENT_CHARS);
+      hash = sha256(arguments);
+    }
+    ToolCallRecord entry = new ToolCallRecord(Instant.ofEpochMilli(startedAtMillis).toString(),
+        tool, outcome, exception, durationNanos / 1_000_000.0, requestBytes, responseBytes,
+        shown, hash);
+    if (!queue.offer(entry)) {
+      dropped.incrementAndGet();
+    }
+  }
+
+  @Tool(name = "tool_call_latency", description = "Latency percentiles, error counts and response sizes per tool, "
+      + "from the most recent tool calls kept in memory")
+  public ToolLatencyReport latency(
+      @ToolParam(required = false, description = "Only this tool") String tool,
+      @ToolParam(required = false, description = "Only calls from the last this many minutes") Integer sinceMinutes) {
+    log.debug("tool_call_latency | tool: {}, sinceMinutes: {}", tool, sinceMinutes);
+    String since = sinceMinutes == null || sinceMinutes <= 0 ? null
+        : Instant.now().minus(Duration.ofMinutes(sinceMinutes)).toString();
+    List<ToolCallRecord> window = recent().stream()
+        .filter(call -> tool == null || tool.isBlank() || tool.equals(call.tool()))
+        // ISO-8601 UTC instants sort as text
+        .filter(call -> since == null || call.time().compareTo(since) >= 0)
+        .toList();
+    Map<String, List<ToolCallRecord>> byTool = window.stream()
+        .collect(Collectors.groupingBy(ToolCallRecord::tool));
+    List<ToolLatency> tools = byTool.entrySet().stream()
+        .map(calls -> latency(calls.getKey(), calls.getValue()))
+        .sorted(Comparator.comparingDouble(ToolLatency::p95Millis).reversed())
+        .toList();
+    return new ToolLatencyReport(tools, window.size(), dropped.get());
+  }
+
+  private static ToolLatency latency(String tool, List<ToolCallRecord> calls) {
+    double[] durations = calls.stream().mapToDouble(ToolCallRecord::durationMillis).sorted()
+        .toArray();
+    long errors = calls.stream().filter(call -> !"success".equals(call.outcome())).count();
+    long responseBytes = (long) calls.stream().mapToInt(ToolCallRecord::responseBytes).average()
+        .orElse(0);
+    return new ToolLatency(tool, calls.size(), errors, percentile(durations, 0.50),
+        percentile(durations, 0.95), percentile(durations, 0.99),
+        durations[durations.length - 1], responseBytes);
+  }
+
+  private static double percentile(double[] sorted, double quantile) {
+    int index = (int) Math.ceil(quantile * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+  }
+
+  private List<ToolCallRecord> recent() {
+    synchronized (recent) {
+      int size = (int) Math.min(recentCount, recent.length);
+      List<ToolCallRecord> copy = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        copy.add(recent[(recentNext - size + i + recent.length) % recent.length]);
+      }
+      return copy;
+    }
+  }
+
+  private void remember(List<ToolCallRecord> batch) {
+    if (recent.length == 0) {
+      return;
+    }
+    synchronized (recent) {
+      for (ToolCallRecord entry : batch) {
+        recent[recentNext] = entry;
+        recentNext = (recentNext + 1) % recent.length;
+        recentCount++;
+      }
+    }
+  }
+
+  private void drain() {
+    List<ToolCallRecord> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        ToolCallRecord first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        write(batch);
+        remember(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        log.warn("Tool call journal batch lost | size: {}", batch.size(), e);
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void write(List<ToolCallRecord> batch) {
+    if (file == null) {
+      return;
+    }
+    try {
+      if (writer == null) {
+        Files.createDirectories(file.getParent());
+        writer = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND), 1 << 16);
+      }
+      for (ToolCallRecord entry : batch) {
+        writer.write(objectMapper.writeValueAsString(entry));
+        writer.write('\n');
+      }
+      writer.flush();
+      written.addAndGet(batch.size());
+      if (Files.size(file) > maxFileBytes) {
+        // Keep one previous file next to the current one
+        closeWriter();
+        Files.move(file, file.resolveSibling(file.getFileName() + ".1"),
+            StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      log.warn("Could not write tool call journal {}: {}", file, e.getMessage());
+      closeWriter();
+    }
+  }
+
+  private void closeWriter() {
+    if (writer != null) {
+      try {
+        writer.close();
+      } catch (IOException e) {
+        log.debug("Closing tool call journal failed", e);
+      }
+      writer = null;
+    }
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    running = false;
+    // Not interrupted: an interrupt would close the file channel in the middle of a write
+    writerThread.join(flushInterval.plusSeconds(5).toMillis());
+    closeWriter();
+  }
+
+  private static String sha256(String value) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+          .digest(value.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
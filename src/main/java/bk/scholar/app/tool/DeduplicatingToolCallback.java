@@ -0,0 +1,206 @@
+package bk.scholar.app.tool;
+
+import bk.scholar.app.config.GoogleTenant;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+/**
+ * Keeps repeated calls from doing the same work twice. Calls are compared by tool and JSON
+ * arguments, ignoring property order; the tool context is not compared.
+ * <ul>
+ *   <li>{@link Mode#SINGLE_FLIGHT}: for read-only tools, an identical call arriving while one is
+ *   running waits for it and gets the same result.</li>
+ *   <li>{@link Mode#IDEMPOTENT}: for mutating tools, adds an optional
+ *   {@value #IDEMPOTENCY_KEY} argument. The first successful result for a key is kept for
+ *   {@code ttl}, and a retry with that key gets it back without calling the tool again.</li>
+ * </ul>
+ */
+public class DeduplicatingToolCallback implements ToolCallback {
+
+  static final String IDEMPOTENCY_KEY = "idempotencyKey";
+  private static final String IDEMPOTENCY_KEY_DESCRIPTION = "Optional client-chosen key, e.g. a "
+      + "UUID. Retrying with the same key and arguments returns the first result instead of "
+      + "repeating the change";
+  private static final JsonMapper CANONICAL = JsonMapper.builder()
+      .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+      .build();
+  private static final TypeReference<LinkedHashMap<String, Object>> ARGUMENTS =
+      new TypeReference<>() {};
+  private final ToolCallback delegate;
+  private final ToolDefinition toolDefinition;
+  private final Mode mode;
+  private final ConcurrentMap<String, Stored> inFlight = new ConcurrentHashMap<>();
+  private final Cache<String, Stored> results;
+  private final Counter deduplicated;
+
+  public DeduplicatingToolCallback(ToolCallback delegate, Mode mode, Duration ttl,
+      long maxResults, MeterRegistry registry) {
+    this.delegate = delegate;
+    this.mode = mode;
+    this.toolDefinition = mode == Mode.IDEMPOTENT
+        ? ToolSchemas.withOptionalString(delegate.getToolDefinition(), IDEMPOTENCY_KEY,
+        IDEMPOTENCY_KEY_DESCRIPTION)
+        : delegate.getToolDefinition();
+    this.results = mode == Mode.IDEMPOTENT
+        ? Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maxResults).build()
+        : null;
+    this.deduplicated = Counter.builder("scholar.tool.deduplicated")
+        .description("Tool calls answered with the result of an earlier or concurrent call")
+        .tag("tool", toolDefinition.name())
+        .tag("mode", mode.name().toLowerCase(Locale.ROOT))
+        .register(registry);
+  }
+
+  @Override
+  public ToolDefinition getToolDefinition() {
+    return toolDefinition;
+  }
+
+  @Override
+  public ToolMetadata getToolMetadata() {
+    return delegate.getToolMetadata();
+  }
+
+  @Override
+  public String call(String toolInput) {
+    return call(toolInput, null);
+  }
+
+  @Override
+  public String call(String toolInput, ToolContext toolContext) {
+    Supplier<String> invocation = () -> toolContext == null
+        ? delegate.call(toolInput)
+        : delegate.call(toolInput, toolContext);
+    Map<String, Object> arguments = arguments(toolInput);
+    if (arguments == null) {
+      // Not an argument object; let the tool report it
+      return invocation.get();
+    }
+    return mode == Mode.SINGLE_FLIGHT
+        ? singleFlight(canonical(arguments), invocation)
+        : idempotent(arguments, invocation);
+  }
+
+  private String singleFlight(String key, Supplier<String> invocation) {
+    Stored mine = new Stored(key, new CompletableFuture<>());
+    Stored running = inFlight.putIfAbsent(key, mine);
+    if (running != null) {
+      deduplicated.increment();
+      return await(running.result);
+    }
+    try {
+      return run(mine.result, invocation);
+    } finally {
+      inFlight.remove(key, mine);
+    }
+  }
+
+  private String idempotent(Map<String, Object> arguments, Supplier<String> invocation) {
+    Object key = arguments.remove(IDEMPOTENCY_KEY);
+    if (key == null || key.toString().isBlank()) {
+      return invocation.get();
+    }
+    // Keys are scoped to the account the call acts for, resolved as TenantToolCallback does
+    String tenant = GoogleTenant.validate(
+        Objects.toString(arguments.remove(TenantToolCallback.TENANT), null));
+    String scope = tenant + "\n" + key;
+    Stored mine = new Stored(canonical(arguments), new CompletableFuture<>());
+    Stored earlier = results.getIfPresent(scope);
+    if (earlier == null) {
+      // A running call stays here, out of reach of the cache's size eviction, until it completes
+      earlier = inFlight.putIfAbsent(scope, mine);
+    }
+    if (earlier == null) {
+      try {
+        // The first call may have completed, and left inFlight, since the cache was checked
+        earlier = results.getIfPresent(scope);
+        if (earlier == null) {
+          String result = run(mine.result, invocation);
+          // Only a successful change is remembered; a failed one may be retried under the same key
+          results.put(scope, mine);
+          return result;
+        }
+      } finally {
+        inFlight.remove(scope, mine);
+      }
+    }
+    if (!earlier.arguments.equals(mine.arguments)) {
+      throw new ToolExecutionException(toolDefinition, new IllegalArgumentException(
+          IDEMPOTENCY_KEY + " " + key + " was already used with different arguments"));
+    }
+    deduplicated.increment();
+    return await(earlier.result);
+  }
+
+  private static String run(CompletableFuture<String> outcome, Supplier<String> invocation) {
+    try {
+      String result = invocation.get();
+      outcome.complete(result);
+      return result;
+    } catch (RuntimeException e) {
+      outcome.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  private String await(CompletableFuture<String> outcome) {
+    try {
+      return outcome.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ToolExecutionException(toolDefinition, e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new ToolExecutionException(toolDefinition, e.getCause());
+    }
+  }
+
+  private static Map<String, Object> arguments(String toolInput) {
+    if (toolInput == null || toolInput.isBlank()) {
+      return new LinkedHashMap<>();
+    }
+    try {
+      return CANONICAL.readValue(toolInput, ARGUMENTS);
+    } catch (JsonProcessingException e) {
+      return null;
+    }
+  }
+
+  private String canonical(Map<String, Object> arguments) {
+    try {
+      return CANONICAL.writeValueAsString(arguments);
+    } catch (JsonProcessingException e) {
+      throw new ToolExecutionException(toolDefinition, e);
+    }
+  }
+
+  public enum Mode {
+    SINGLE_FLIGHT,
+    IDEMPOTENT
+  }
+
+  private record Stored(String arguments, CompletableFuture<String> result) {}
+}
@@ -1,9 +1,19 @@
 package bk.scholar.app.tool;
 
 import bk.scholar.app.config.Utility;
+import bk.scholar.app.dto.BulkItemResult;
 import bk.scholar.app.dto.CalendarEvent;
+import bk.scholar.app.dto.CalendarEventPage;
 import bk.scholar.app.dto.FileItem;
-import com.google.api.client.http.ByteArrayContent;
+import bk.scholar.app.dto.FileTree;
+import bk.scholar.app.dto.GoogleApiStatistics;
+import bk.scholar.app.service.AttendeeUpdateService;
+import bk.scholar.app.service.CalendarBatchService;
+import bk.scholar.app.service.CalendarMirrorService;
+import bk.scholar.app.service.DriveIndexService;
+import bk.scholar.app.service.DriveTreeService;
+import bk.scholar.app.service.DriveUploadService;
+import bk.scholar.app.service.GoogleApiExecutor;
 import com.google.api.services.calendar.Calendar;
 import com.google.api.services.calendar.model.Event;
 import com.google.api.services.calendar.model.EventAttendee;
@@ -12,7 +22,10 @@ import com.google.api.services.drive.Drive;
 import com.google.api.services.drive.model.File;
 import com.google.api.services.drive.model.FileList;
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -21,159 +34,333 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.messages.ToolResponseMessage.ToolResponse;
 import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 
 @Component
 public class GSuiteTools {
 
   private static final Logger log = LoggerFactory.getLogger(GSuiteTools.class);
-  private final Drive gDrive;
-  private final Calendar gCalendar;
+  private final ObjectProvider<Drive> gDrive;
+  private final ObjectProvider<Calendar> gCalendar;
   private final String calendarId = "primary";
 
-  public GSuiteTools(Drive gDrive, Calendar gCalendar) {
+  // Partial response: only what CalendarEvent carries, plus the paging cursor
+  private static final String EVENT_LIST_FIELDS = "nextPageToken,items(id,summary,etag)";
+  private static final int DEFAULT_EVENT_RESULTS = 250;
+  private static final int MAX_EVENT_RESULTS = 2500;
+
+  private final CalendarMirrorService calendarMirror;
+
+  private final DriveIndexService driveIndex;
+  private final DriveTreeService driveTree;
+  private final CalendarBatchService calendarBatch;
+  private final AttendeeUpdateService attendeeUpdates;
+  private final DriveUploadService driveUpload;
+  private final GoogleApiExecutor googleApi;
+
+  public GSuiteTools(ObjectProvider<Drive> gDrive, ObjectProvider<Calendar> gCalendar,
+      CalendarMirrorService calendarMirror, DriveIndexService driveIndex, DriveTreeService driveTree,
+      CalendarBatchService calendarBatch, AttendeeUpdateService attendeeUpdates,
+      DriveUploadService driveUpload, GoogleApiExecutor googleApi) {
     this.gDrive = gDrive;
     this.gCalendar = gCalendar;
+    this.calendarMirror = calendarMirror;
+    this.driveIndex = driveIndex;
+    this.driveTree = driveTree;
+    this.calendarBatch = calendarBatch;
+    this.attendeeUpdates = attendeeUpdates;
+    this.driveUpload = driveUpload;
+    this.googleApi = googleApi;
   }
 
   // --- CALENDAR TOOLS ---
 
-  @Tool(name = "find_all_events_of_a_calendar", description = "Get all calendar events from the primary calendar")
-  public List<CalendarEvent> getCalendarEvents() throws IOException {
-    log.info("find_all_events_of_a_calendar | Called");
+  @Tool(name = "find_all_events_of_a_calendar", description = "Get calendar events from the primary calendar, optionally within a time window. "
+      + "Returns up to maxResults events; pass the returned nextPageToken as pageToken to continue, it is null when nothing is left")
+  public CalendarEventPage getCalendarEvents(
+      @ToolParam(required = false, description = "Window start, yyyy-MM-dd or RFC 3339 timestamp") String timeMin,
+      @ToolParam(required = false, description = "Window end (exclusive), yyyy-MM-dd or RFC 3339 timestamp") String timeMax,
+      @ToolParam(required = false, description = "Maximum events to return, default 250, max 2500") Integer maxResults,
+      @ToolParam(required = false, description = "nextPageToken from a previous call") String pageToken) throws IOException {
+    log.debug("find_all_events_of_a_calendar | timeMin: {}, timeMax: {}, maxResults: {}, pageToken: {}",
+        timeMin, timeMax, maxResults, pageToken);
 
     //getCalendarEvents
-    Events events = gCalendar.events().list(calendarId).execute();
-    return events.getItems() == null ? Collections.emptyList() :
+    int limit = maxResults == null || maxResults <= 0 ? DEFAULT_EVENT_RESULTS
+        : Math.min(maxResults, MAX_EVENT_RESULTS);
+    if (calendarMirror.serves(calendarId, pageToken)) {
+      return calendarMirror.findEvents(calendarId, Utility.toDateTime(timeMin),
+          Utility.toDateTime(timeMax), limit, pageToken);
+    }
+    List<CalendarEvent> collected = new ArrayList<>();
+    String token = pageToken == null || pageToken.isBlank() ? null : pageToken;
+    do {
+      Events events = googleApi.execute(calendar().events().list(calendarId)
+          .setSingleEvents(CalendarMirrorService.SINGLE_EVENTS)
+          .setTimeMin(Utility.toDateTime(timeMin))
+          .setTimeMax(Utility.toDateTime(timeMax))
+          .setMaxResults(Math.min(limit - collected.size(), MAX_EVENT_RESULTS))
+          .setPageToken(token)
+          .setFields(EVENT_LIST_FIELDS));
+      if (events.getItems() != null) {
         events.getItems().stream()
-            .map(e -> new CalendarEvent(e.getId(), e.getSummary(), e.getEtag()))
-            .collect(Collectors.toList());
+            .map(CalendarEvent::from)
+            .forEach(collected::add);
+      }
+      token = events.getNextPageToken();
+    } while (token != null && collected.size() < limit);
+
+    return new CalendarEventPage(collected, token);
   }
 
   @Tool(name = "create_calendar_event_on_date", description = "Create a new calendar event on a given date (format: yyyy-MM-dd) with a summary/title")
   public CalendarEvent createCalendarEvent(String dateString, String summary) throws IOException {
     //createCalendarEvent
-    log.info("create_calendar_event_on_date | dateString: {}, summary: {}", dateString, summary);
-    var timeMap = Utility.createEventTime(dateString);
+    log.debug("create_calendar_event_on_date | dateString: {}, summary: {}", dateString, summary);
+    var eventTime = Utility.createEventTime(dateString);
     Event event = new Event()
         .setSummary(summary)
         .setLocation("Dhaka/Bangladesh")
-        .setStart(timeMap.get("start"))
-        .setEnd(timeMap.get("end"));
+        .setStart(eventTime.start())
+        .setEnd(eventTime.end());
 
-    Event created = gCalendar.events().insert(calendarId, event).execute();
-    return new CalendarEvent(created.getId(), created.getSummary(), created.getEtag());
+    Event created = googleApi.execute(calendar().events().insert(calendarId, event));
+    calendarMirror.upsert(calendarId, created);
+    return CalendarEvent.from(created);
+  }
+
+  @Tool(name = "create_calendar_events_on_dates", description = "Create one calendar event with the same summary/title on each of the given dates (format: yyyy-MM-dd), "
+      + "optionally inviting the same attendees to all of them. Returns one result per date")
+  public List<BulkItemResult> createCalendarEvents(List<String> dateStrings, String summary,
+      @ToolParam(required = false, description = "Attendee emails added to every event") List<String> attendeeEmails) throws IOException {
+    log.debug("create_calendar_events_on_dates | dates: {}, summary: {}, attendees: {}",
+        dateStrings == null ? 0 : dateStrings.size(), summary,
+        attendeeEmails == null ? 0 : attendeeEmails.size());
+    //createCalendarEvents
+    List<EventAttendee> attendees = attendeeEmails == null ? null : attendeeEmails.stream()
+        .distinct()
+        .map(email -> new EventAttendee().setEmail(email))
+        .collect(Collectors.toList());
+    List<String> dates = Optional.ofNullable(dateStrings).orElse(List.of());
+    BulkItemResult[] results = new BulkItemResult[dates.size()];
+    List<CalendarBatchService.Insert> inserts = new ArrayList<>();
+    List<Integer> positions = new ArrayList<>();
+    for (int i = 0; i < dates.size(); i++) {
+      String dateString = dates.get(i);
+      Utility.EventTime eventTime = eventTime(dateString);
+      if (eventTime == null) {
+        // One bad date fails only its own item
+        results[i] = BulkItemResult.failed(dateString, "Invalid date, expected yyyy-MM-dd");
+        continue;
+      }
+      positions.add(i);
+      inserts.add(new CalendarBatchService.Insert(dateString, new Event()
+          .setSummary(summary)
+          .setLocation("Dhaka/Bangladesh")
+          .setStart(eventTime.start())
+          .setEnd(eventTime.end())
+          .setAttendees(attendees)));
+    }
+    List<BulkItemResult> created = inserts.isEmpty() ? List.of()
+        : calendarBatch.insertEvents(calendarId, inserts);
+    for (int i = 0; i < created.size(); i++) {
+      results[positions.get(i)] = created.get(i);
+    }
+    return Arrays.asList(results);
   }
 
   @Tool(name = "delete_calendar_event", description = "Delete a calendar event by its event ID")
   public ToolResponse deleteCalendarEvent(String eventId) throws IOException {
     //deleteCalendarEvent
-    log.info("delete_calendar_event | eventIdy: {}", eventId);
-    gCalendar.events().delete(calendarId, eventId).execute();
+    log.debug("delete_calendar_event | eventIdy: {}", eventId);
+    googleApi.execute(calendar().events().delete(calendarId, eventId));
+    calendarMirror.remove(calendarId, eventId);
     return new ToolResponse(eventId, "Event", "Event deleted successfully");
   }
 
   @Tool(name = "attendee_to_a_calendar_event", description = "Add a user (by email) as an attendee to a calendar event")
   public ToolResponse addCalendarUser(String eventId, String email) throws IOException {
     //addCalendarUser
-    log.info("attendee_to_a_calendar_event | eventId: {}, email: {}", eventId, email);
-    Event event = gCalendar.events().get(calendarId, eventId).execute();
-    List<EventAttendee> attendees = Optional.ofNullable(event.getAttendees()).orElse(new ArrayList<>());
-
-    boolean alreadyExists = attendees.stream()
-        .anyMatch(a -> a.getEmail().equalsIgnoreCase(email));
-
-    if (!alreadyExists) {
-      attendees.add(new EventAttendee().setEmail(email));
-      event.setAttendees(attendees);
-      gCalendar.events().update(calendarId, eventId, event).execute();
-      return new ToolResponse(eventId, email, "User added to event");
-    }
-    return new ToolResponse(eventId, email, "User already in event");
+    log.debug("attendee_to_a_calendar_event | eventId: {}, email: {}", eventId, email);
+    BulkItemResult result = attendeeUpdates.addAttendees(calendarId, eventId, List.of(email)).get(0);
+    return new ToolResponse(eventId, email, result.message());
   }
 
   @Tool(name = "remove_attendee_from_a_calendar_event", description = "Remove a user (by email) from a calendar event's attendees")
   public ToolResponse removeCalendarUser(String eventId, String email) throws IOException {
-    log.info("remove_attendee_from_a_calendar_event | eventId: {}, email: {}", eventId, email);
+    log.debug("remove_attendee_from_a_calendar_event | eventId: {}, email: {}", eventId, email);
     //removeCalendarUser
-    Event event = gCalendar.events().get(calendarId, eventId).execute();
-    List<EventAttendee> attendees = event.getAttendees();
-
-    if (attendees != null) {
-      boolean removed = attendees.removeIf(a -> a.getEmail().equalsIgnoreCase(email));
-      if (removed) {
-        event.setAttendees(attendees);
-        gCalendar.events().update(calendarId, eventId, event).execute();
-        return new ToolResponse(eventId, email, "User removed from event");
-      }
+    BulkItemResult result = attendeeUpdates.removeAttendees(calendarId, eventId, List.of(email)).get(0);
+    return new ToolResponse(eventId, email, result.message());
+  }
+
+  @Tool(name = "add_attendees_to_a_calendar_event", description = "Add many users (by email) as attendees to one calendar event in a single update. Returns one result per email")
+  public List<BulkItemResult> addCalendarUsers(String eventId, List<String> emails) throws IOException {
+    log.debug("add_attendees_to_a_calendar_event | eventId: {}, emails: {}", eventId, emails == null ? 0 : emails.size());
+    //addCalendarUsers
+    return attendeeUpdates.addAttendees(calendarId, eventId, distinct(emails));
+  }
+
+  @Tool(name = "remove_attendees_from_a_calendar_event", description = "Remove many users (by email) from one calendar event's attendees in a single update. Returns one result per email")
+  public List<BulkItemResult> removeCalendarUsers(String eventId, List<String> emails) throws IOException {
+    log.debug("remove_attendees_from_a_calendar_event | eventId: {}, emails: {}", eventId, emails == null ? 0 : emails.size());
+    //removeCalendarUsers
+    return attendeeUpdates.removeAttendees(calendarId, eventId, distinct(emails));
+  }
+
+  private static Utility.EventTime eventTime(String dateString) {
+    if (dateString == null) {
+      return null;
+    }
+    try {
+      return Utility.createEventTime(dateString.trim());
+    } catch (DateTimeParseException e) {
+      return null;
     }
-    return new ToolResponse(eventId, email, "User not found in event");
+  }
+
+  private static List<String> distinct(List<String> emails) {
+    return emails == null ? List.of() : emails.stream().distinct().collect(Collectors.toList());
   }
 
   // --- DRIVE TOOLS ---
 
   @Tool(name = "list_all_files_and_folders", description = "List all files and folders (not just folders) inside a Google Drive folder by its ID")
   public List<FileItem> getFoldersById(String folderId) throws IOException {
-    log.info("list_all_files_and_folders | folderId: {}", folderId);
+    log.debug("list_all_files_and_folders | folderId: {}", folderId);
     //getFoldersById
+    if (driveIndex.isReady()) {
+      return driveIndex.listChildren(folderId);
+    }
     String query = "'" + folderId + "' in parents and trashed = false";
-    FileList result = gDrive.files().list()
+    FileList result = googleApi.execute(drive().files().list()
         .setQ(query)
-        .setFields("files(id, name, mimeType, parents)")
-        .execute();
+        .setFields("files(id, name, mimeType, parents)"));
 
     return result.getFiles().stream()
-        .map(f -> new FileItem(
-            f.getId(),
-            f.getName(),
-            f.getMimeType(),
-            String.valueOf(f.getParents() != null ? f.getParents().size() : 0)
-        ))
+        .map(FileItem::from)
         .collect(Collectors.toList());
   }
 
+  @Tool(name = "list_folder_tree", description = "Recursively list every file and folder below a Google Drive folder ID in one call. "
+      + "Returns a flat list where each item carries its parentId and depth (1 = direct child)")
+  public FileTree getFolderTree(String folderId,
+      @ToolParam(required = false, description = "How many levels to descend, default 5, max 20") Integer maxDepth,
+      @ToolParam(required = false, description = "Maximum items to return, default 1000, max 10000") Integer maxItems) throws IOException {
+    log.debug("list_folder_tree | folderId: {}, maxDepth: {}, maxItems: {}", folderId, maxDepth, maxItems);
+    //getFolderTree
+    int depth = maxDepth == null || maxDepth <= 0 ? 5 : Math.min(maxDepth, 20);
+    int items = maxItems == null || maxItems <= 0 ? 1000 : Math.min(maxItems, 10000);
+    return driveTree.walk(folderId, depth, items);
+  }
+
   @Tool(name = "create_new_folder", description = "Create a new folder in Google Drive under a parent folder ID with a given name")
   public ToolResponse createFolder(String parentFolderId, String folderName) throws IOException {
-    log.info("create_new_folder | parentFolderId: {}, folderName: {}", parentFolderId, folderName);
+    log.debug("create_new_folder | parentFolderId: {}, folderName: {}", parentFolderId, folderName);
     //createFolder
     File metadata = new File()
         .setName(folderName)
         .setMimeType("application/vnd.google-apps.folder")
         .setParents(Collections.singletonList(parentFolderId));
 
-    File created = gDrive.files().create(metadata).setFields("id, name").execute();
+    File created = googleApi.execute(drive().files().create(metadata).setFields("id, name, mimeType, parents"));
+    driveIndex.upsert(created);
     return new ToolResponse(created.getId(), created.getName(), "Folder created");
   }
 
   @Tool(name = "create_new_file", description = "Create a new text file in Google Drive under a parent folder ID with given name and content")
   public ToolResponse createFile(String parentFolderId, String fileName, String fileContent) throws IOException {
-    log.info("create_new_file | parentFolderId: {}, fileName: {}, fileContent: {}", parentFolderId, fileName, fileContent);
+    log.debug("create_new_file | parentFolderId: {}, fileName: {}, contentLength: {}", parentFolderId, fileName,
+        fileContent == null ? 0 : fileContent.length());
     //createFile
-    ByteArrayContent content = ByteArrayContent.fromString("text/plain", fileContent);
     File metadata = new File()
         .setName(fileName)
         .setParents(Collections.singletonList(parentFolderId));
 
-    File created = gDrive.files().create(metadata, content).setFields("id, name").execute();
+    File created = driveUpload.createFromText(metadata, Optional.ofNullable(fileContent).orElse(""));
+    driveIndex.upsert(created);
     return new ToolResponse(created.getId(), created.getName(), "File created");
   }
 
+  @Tool(name = "update_file_content", description = "Replace the content of an existing Google Drive file by its ID with the given text")
+  public ToolResponse updateFile(String fileId, String fileContent) throws IOException {
+    log.debug("update_file_content | fileId: {}, contentLength: {}", fileId,
+        fileContent == null ? 0 : fileContent.length());
+    //updateFile
+    File updated = driveUpload.updateFromText(fileId, Optional.ofNullable(fileContent).orElse(""));
+    return new ToolResponse(updated.getId(), updated.getName(), "File updated");
+  }
+
+  @Tool(name = "upload_local_file", description = "Upload a file from the server's upload directory into a Google Drive folder using a resumable, chunked upload. "
+      + "Suited to large files")
+  public ToolResponse uploadLocalFile(String parentFolderId, String localPath,
+      @ToolParam(required = false, description = "Name in Drive, defaults to the local file name") String fileName,
+      @ToolParam(required = false, description = "MIME type, detected from the file when omitted") String mimeType) throws IOException {
+    log.debug("upload_local_file | parentFolderId: {}, localPath: {}, fileName: {}", parentFolderId, localPath, fileName);
+    //uploadLocalFile
+    String name = fileName == null || fileName.isBlank()
+        ? Paths.get(localPath).getFileName().toString() : fileName;
+    File metadata = new File()
+        .setName(name)
+        .setParents(Collections.singletonList(parentFolderId));
+
+    File created = driveUpload.createFromLocalFile(metadata, localPath, mimeType);
+    driveIndex.upsert(created);
+    return new ToolResponse(created.getId(), created.getName(), "File uploaded");
+  }
+
+  @Tool(name = "update_file_from_local_file", description = "Replace the content of an existing Google Drive file by its ID with a file from the server's upload directory, "
+      + "using a resumable, chunked upload")
+  public ToolResponse updateFileFromLocalFile(String fileId, String localPath,
+      @ToolParam(required = false, description = "MIME type, detected from the file when omitted") String mimeType) throws IOException {
+    log.debug("update_file_from_local_file | fileId: {}, localPath: {}", fileId, localPath);
+    //updateFileFromLocalFile
+    File updated = driveUpload.updateFromLocalFile(fileId, localPath, mimeType);
+    return new ToolResponse(updated.getId(), updated.getName(), "File updated");
+  }
+
   @Tool(name = "delete_folder_file_by_name", description = "Delete a file or folder from Google Drive by its name under a specific parent folder ID")
   public ToolResponse deleteItemByName(String parentId, String itemName) throws IOException {
-    log.info("delete_folder_file_by_name | parentId: {}, itemName: {}", parentId, itemName);
+    log.debug("delete_folder_file_by_name | parentId: {}, itemName: {}", parentId, itemName);
     //deleteItemByName
-    String safeName = itemName.replace("'", "\\'");
-    String query = String.format("'%s' in parents and name = '%s' and trashed = false", parentId, safeName);
+    Optional<String> indexed = driveIndex.isReady()
+        ? driveIndex.findIdByName(parentId, itemName) : Optional.empty();
+    String fileId;
+    if (indexed.isPresent()) {
+      fileId = indexed.get();
+    } else {
+      // Not indexed yet (or created elsewhere since the last sync), ask Drive
+      String safeName = itemName.replace("'", "\\'");
+      String query = String.format("'%s' in parents and name = '%s' and trashed = false", parentId, safeName);
 
-    FileList result = gDrive.files().list().setQ(query).setFields("files(id, name, mimeType)").execute();
-    List<File> files = result.getFiles();
+      FileList result = googleApi.execute(drive().files().list().setQ(query).setFields("files(id, name, mimeType)"));
+      List<File> files = result.getFiles();
 
-    if (files.isEmpty()) {
-      return new ToolResponse("", itemName, "Item not found");
+      if (files.isEmpty()) {
+        return new ToolResponse("", itemName, "Item not found");
+      }
+      fileId = files.get(0).getId();
     }
 
-    String fileId = files.get(0).getId();
-    gDrive.files().delete(fileId).execute();
+    googleApi.execute(drive().files().delete(fileId));
+    driveIndex.remove(fileId);
     return new ToolResponse(fileId, itemName, "Item deleted");
   }
+
+  @Tool(name = "google_api_statistics", description = "Get Google API call, throttling, retry and failure counters")
+  public GoogleApiStatistics googleApiStatistics() {
+    log.debug("google_api_statistics | Called");
+    return googleApi.statistics();
+  }
+
+  // Google clients are lazy beans that wait for OAuth, so resolve them on first use only
+  private Calendar calendar() {
+    return gCalendar.getObject();
+  }
+
+  private Drive drive() {
+    return gDrive.getObject();
+  }
 }
@@ -0,0 +1,112 @@
+package bk.scholar.app.tool;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+/**
+ * Runs a tool on a virtual thread and caps how many calls of that tool may run at once, so a
+ * burst against one slow tool cannot take over the whole server. A call that times out keeps
+ * its slot until the tool actually returns, since cancelling only interrupts it.
+ */
+public class LimitedToolCallback implements ToolCallback {
+
+  private final ToolCallback delegate;
+  private final ExecutorService executor;
+  private final Semaphore permits;
+  private final Duration acquireTimeout;
+  private final Duration callTimeout;
+
+  public LimitedToolCallback(ToolCallback delegate, ExecutorService executor, int maxConcurrency,
+      Duration acquireTimeout, Duration callTimeout) {
+    this.delegate = delegate;
+    this.executor = executor;
+    this.permits = new Semaphore(maxConcurrency, true);
+    this.acquireTimeout = acquireTimeout;
+    this.callTimeout = callTimeout;
+  }
+
+  @Override
+  public ToolDefinition getToolDefinition() {
+    return delegate.getToolDefinition();
+  }
+
+  @Override
+  public ToolMetadata getToolMetadata() {
+    return delegate.getToolMetadata();
+  }
+
+  @Override
+  public String call(String toolInput) {
+    return call(toolInput, null);
+  }
+
+  @Override
+  public String call(String toolInput, ToolContext toolContext) {
+    try {
+      if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+        throw new ToolExecutionException(getToolDefinition(), new IllegalStateException(
+            "Too many concurrent calls to " + getToolDefinition().name() + ", try again later"));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ToolExecutionException(getToolDefinition(), e);
+    }
+    // Whoever claims this first owns the permit: the task once it starts, or the caller when
+    // the task never will
+    AtomicBoolean claimed = new AtomicBoolean();
+    Future<String> result;
+    try {
+      result = executor.submit(() -> {
+        if (!claimed.compareAndSet(false, true)) {
+          return null;
+        }
+        try {
+          return ToolCallDeadline.callWithin(callTimeout, () -> toolContext == null
+              ? delegate.call(toolInput)
+              : delegate.call(toolInput, toolContext));
+        } finally {
+          permits.release();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      permits.release();
+      throw new ToolExecutionException(getToolDefinition(), e);
+    }
+    try {
+      return result.get(callTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      result.cancel(true);
+      releaseIfNotStarted(claimed);
+      throw new ToolExecutionException(getToolDefinition(), new IllegalStateException(
+          getToolDefinition().name() + " did not finish within " + callTimeout));
+    } catch (InterruptedException e) {
+      result.cancel(true);
+      releaseIfNotStarted(claimed);
+      Thread.currentThread().interrupt();
+      throw new ToolExecutionException(getToolDefinition(), e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new ToolExecutionException(getToolDefinition(), e.getCause());
+    }
+  }
+
+  private void releaseIfNotStarted(AtomicBoolean claimed) {
+    if (claimed.compareAndSet(false, true)) {
+      permits.release();
+    }
+  }
+}
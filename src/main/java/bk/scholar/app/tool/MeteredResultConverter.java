@@ -0,0 +1,30 @@
+package bk.scholar.app.tool;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Type;
+import org.springframework.ai.tool.execution.ToolCallResultConverter;
+
+/**
+ * Times the conversion of a tool's return value to JSON, so serialization shows up separately
+ * from the work done inside the tool method.
+ */
+public class MeteredResultConverter implements ToolCallResultConverter {
+
+  private final ToolCallResultConverter delegate;
+  private final Timer timer;
+
+  public MeteredResultConverter(ToolCallResultConverter delegate, MeterRegistry registry,
+      String toolName) {
+    this.delegate = delegate;
+    this.timer = Timer.builder("scholar.tool.serialization")
+        .description("Time spent converting a tool result to JSON")
+        .tag("tool", toolName)
+        .register(registry);
+  }
+
+  @Override
+  public String convert(Object result, Type returnType) {
+    return timer.record(() -> delegate.convert(result, returnType));
+  }
+}
@@ -0,0 +1,118 @@
+package bk.scholar.app.tool;
+
+import bk.scholar.app.service.ToolCallJournal;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+/**
+ * Records latency, outcome and request/response sizes of a tool call as seen by the MCP client,
+ * i.e. including any time spent waiting for a concurrency slot, and hands each call to the
+ * {@link ToolCallJournal}.
+ */
+public class MeteredToolCallback implements ToolCallback {
+
+  private final ToolCallback delegate;
+  private final MeterRegistry registry;
+  private final ToolCallJournal journal;
+  private final String toolName;
+  private final DistributionSummary requestBytes;
+  private final DistributionSummary responseBytes;
+
+  public MeteredToolCallback(ToolCallback delegate, MeterRegistry registry,
+      ToolCallJournal journal) {
+    this.delegate = delegate;
+    this.registry = registry;
+    this.journal = journal;
+    this.toolName = delegate.getToolDefinition().name();
+    this.requestBytes = payloadSummary("request");
+    this.responseBytes = payloadSummary("response");
+  }
+
+  @Override
+  public ToolDefinition getToolDefinition() {
+    return delegate.getToolDefinition();
+  }
+
+  @Override
+  public ToolMetadata getToolMetadata() {
+    return delegate.getToolMetadata();
+  }
+
+  @Override
+  public String call(String toolInput) {
+    return call(toolInput, null);
+  }
+
+  @Override
+  public String call(String toolInput, ToolContext toolContext) {
+    int requestSize = utf8Length(toolInput);
+    requestBytes.record(requestSize);
+    long startedAt = System.currentTimeMillis();
+    Timer.Sample sample = Timer.start(registry);
+    String outcome = "success";
+    String exception = "none";
+    int responseSize = 0;
+    try {
+      String result = toolContext == null
+          ? delegate.call(toolInput)
+          : delegate.call(toolInput, toolContext);
+      responseSize = utf8Length(result);
+      responseBytes.record(responseSize);
+      return result;
+    } catch (RuntimeException e) {
+      outcome = "error";
+      exception = e.getClass().getSimpleName();
+      throw e;
+    } finally {
+      long nanos = sample.stop(Timer.builder("scholar.tool.calls")
+          .description("Tool call latency, including the wait for a concurrency slot")
+          .tag("tool", toolName)
+          .tag("outcome", outcome)
+          .tag("exception", exception)
+          .register(registry));
+      journal.record(toolName, toolInput, startedAt, nanos, outcome,
+          "none".equals(exception) ? null : exception, requestSize, responseSize);
+    }
+  }
+
+  private DistributionSummary payloadSummary(String direction) {
+    return DistributionSummary.builder("scholar.tool.payload")
+        .description("Size of the JSON exchanged with the MCP client")
+        .baseUnit("bytes")
+        .tag("tool", toolName)
+        .tag("direction", direction)
+        .register(registry);
+  }
+
+  // Counts the encoded size without copying the string into a byte array
+  private static int utf8Length(String value) {
+    if (value == null) {
+      return 0;
+    }
+    int length = value.length();
+    int bytes = length;
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        continue;
+      }
+      if (c < 0x800) {
+        bytes += 1;
+      } else if (Character.isHighSurrogate(c) && i + 1 < length
+          && Character.isLowSurrogate(value.charAt(i + 1))) {
+        // A surrogate pair is one 4-byte code point
+        bytes += 2;
+        i++;
+      } else {
+        // Includes lone surrogates, which the encoder replaces with a 1-byte '?'
+        bytes += Character.isSurrogate(c) ? 0 : 2;
+      }
+    }
+    return bytes;
+  }
+}
@@ -0,0 +1,99 @@
+package bk.scholar.app.tool;
+
+import bk.scholar.app.config.GoogleTenant;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+import org.springframework.ai.util.json.JsonParser;
+
+/**
+ * Adds an optional {@value #TENANT} argument to a Google-backed tool and runs the call bound to
+ * that tenant, so every Calendar and Drive client fetched below it belongs to that account. The
+ * tool method itself never sees the argument. Must run on the thread that calls the tool method.
+ * Calendar tools act on the tenant's primary calendar.
+ *
+ * <p>Nothing authenticates the MCP client, so which tenants a caller may name is a server policy,
+ * see {@link #policy(boolean, Set)}. A tenant outside it is refused before the tool runs.
+ */
+public class TenantToolCallback implements ToolCallback {
+
+  static final String TENANT = "tenant";
+  private static final String TENANT_DESCRIPTION = "Google account to act for, as stored in the "
+      + "token store; defaults to the server's own account";
+  private final ToolCallback delegate;
+  private final ToolDefinition toolDefinition;
+  private final Predicate<String> permitted;
+
+  public TenantToolCallback(ToolCallback delegate, Predicate<String> permitted) {
+    this.delegate = delegate;
+    this.permitted = permitted;
+    this.toolDefinition = ToolSchemas.withOptionalString(delegate.getToolDefinition(), TENANT,
+        TENANT_DESCRIPTION);
+  }
+
+  /**
+   * Tenants a caller may act for. With an allow-list, only those and {@link GoogleTenant#DEFAULT}.
+   * Without one, any stored tenant over stdio, where the client is the local user who launched
+   * the process, and only the default account over HTTP, where any client that reaches the port
+   * could otherwise use every token in the store.
+   */
+  public static Predicate<String> policy(boolean stdio, Set<String> allowed) {
+    if (allowed != null && !allowed.isEmpty()) {
+      Set<String> tenants = Set.copyOf(allowed);
+      return tenant -> GoogleTenant.DEFAULT.equals(tenant) || tenants.contains(tenant);
+    }
+    return stdio ? tenant -> true : GoogleTenant.DEFAULT::equals;
+  }
+
+  @Override
+  public ToolDefinition getToolDefinition() {
+    return toolDefinition;
+  }
+
+  @Override
+  public ToolMetadata getToolMetadata() {
+    return delegate.getToolMetadata();
+  }
+
+  @Override
+  public String call(String toolInput) {
+    return call(toolInput, null);
+  }
+
+  @Override
+  public String call(String toolInput, ToolContext toolContext) {
+    String tenant = GoogleTenant.validate(tenant(toolInput));
+    if (!permitted.test(tenant)) {
+      throw new IllegalArgumentException("Tenant not allowed on this server: " + tenant);
+    }
+    try {
+      return GoogleTenant.callAs(tenant, () -> toolContext == null
+          ? delegate.call(toolInput)
+          : delegate.call(toolInput, toolContext));
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ToolExecutionException(toolDefinition, e);
+    }
+  }
+
+  private static String tenant(String toolInput) {
+    // Most calls are for the default account; skip parsing when the argument is absent
+    if (toolInput == null || !toolInput.contains("\"" + TENANT + "\"")) {
+      return null;
+    }
+    try {
+      JsonNode tenant = JsonParser.getObjectMapper().readTree(toolInput).get(TENANT);
+      return tenant == null || tenant.isNull() ? null : tenant.asText();
+    } catch (JsonProcessingException e) {
+      // Malformed input is reported by the tool itself
+      return null;
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package bk.scholar.app.tool;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+/**
+ * Deadline of the tool call running on the current thread, so layers below the tool (e.g. the
+ * Google retry loop) stop backing off once the caller would have given up anyway.
+ */
+public final class ToolCallDeadline {
+
+  private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+  private ToolCallDeadline() {
+  }
+
+  public static <T> T callWithin(Duration budget, Callable<T> call) throws Exception {
+    return callUntil(System.nanoTime() + budget.toNanos(), call);
+  }
+
+  /**
+   * Carries the current deadline, if any, over to a task that will run on another thread.
+   */
+  public static <T> Callable<T> bind(Callable<T> task) {
+    Long deadline = DEADLINE_NANOS.get();
+    return deadline == null ? task : () -> callUntil(deadline, task);
+  }
+
+  private static <T> T callUntil(long deadlineNanos, Callable<T> call) throws Exception {
+    Long previous = DEADLINE_NANOS.get();
+    DEADLINE_NANOS.set(deadlineNanos);
+    try {
+      return call.call();
+    } finally {
+      if (previous == null) {
+        DEADLINE_NANOS.remove();
+      } else {
+        DEADLINE_NANOS.set(previous);
+      }
+    }
+  }
+
+  /**
+   * @return nanoseconds left before the current tool call's deadline, if one is set
+   */
+  public static Optional<Long> remainingNanos() {
+    Long deadline = DEADLINE_NANOS.get();
+    return deadline == null ? Optional.empty() : Optional.of(deadline - System.nanoTime());
+  }
+}
@@ -0,0 +1,40 @@
+package bk.scholar.app.tool;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.util.json.JsonParser;
+
+/**
+ * Extends the input schema of a generated tool definition with arguments handled by a
+ * callback decorator rather than by the tool method.
+ */
+final class ToolSchemas {
+
+  private ToolSchemas() {
+  }
+
+  /**
+   * @return the definition with an optional string property added to its input schema
+   */
+  static ToolDefinition withOptionalString(ToolDefinition definition, String name,
+      String description) {
+    ObjectNode schema;
+    try {
+      schema = (ObjectNode) JsonParser.getObjectMapper().readTree(definition.inputSchema());
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Unreadable input schema of " + definition.name(), e);
+    }
+    ObjectNode properties = schema.has("properties")
+        ? (ObjectNode) schema.get("properties")
+        : schema.putObject("properties");
+    properties.putObject(name)
+        .put("type", "string")
+        .put("description", description);
+    return ToolDefinition.builder()
+        .name(definition.name())
+        .description(definition.description())
+        .inputSchema(JsonParser.toJson(schema))
+        .build();
+  }
+}
@@ -15,3 +15,36 @@ CREATE TABLE IF NOT EXISTS student (
     city VARCHAR(50) NOT NULL,
     insertion_method VARCHAR(50)
 );
+
+-- Trigram and full-text indexes on student are in student-search.sql
+
+CREATE TABLE IF NOT EXISTS calendar_event (
+    calendar_id VARCHAR(255) NOT NULL,
+    event_id VARCHAR(1024) NOT NULL,
+    summary TEXT,
+    etag VARCHAR(255),
+    start_time TIMESTAMP WITH TIME ZONE,
+    end_time TIMESTAMP WITH TIME ZONE,
+    updated TIMESTAMP WITH TIME ZONE,
+    PRIMARY KEY (calendar_id, event_id)
+);
+
+CREATE INDEX IF NOT EXISTS calendar_event_window_idx
+    ON calendar_event (calendar_id, start_time, end_time);
+
+CREATE TABLE IF NOT EXISTS sync_state (
+    resource_key VARCHAR(255) PRIMARY KEY,
+    sync_token TEXT,
+    synced_at TIMESTAMP WITH TIME ZONE
+);
+
+CREATE TABLE IF NOT EXISTS drive_file (
+    id VARCHAR(255) PRIMARY KEY,
+    name VARCHAR(1024) NOT NULL,
+    mime_type VARCHAR(255),
+    parent_id VARCHAR(255),
+    parent_count INTEGER NOT NULL DEFAULT 0,
+    trashed BOOLEAN NOT NULL DEFAULT FALSE
+);
+
+CREATE INDEX IF NOT EXISTS drive_file_parent_name_idx ON drive_file (parent_id, name);
@@ -0,0 +1,13 @@
+-- Indexes behind search_students. Hibernate cannot declare operator-class or expression
+-- indexes, so StudentSearchIndexes applies this script at startup; every statement is idempotent.
+-- The expressions must stay identical to the ones in StudentRepository.search.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS student_name_trgm_idx
+    ON student USING gin (lower(name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS student_email_trgm_idx
+    ON student USING gin (lower(email) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS student_search_tsv_idx
+    ON student USING gin (to_tsvector('simple', name || ' ' || email || ' ' || city));
@@ -0,0 +1,138 @@
+package bk.scholar.app.config;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class CachingHttpTransportTest {
+
+  private static final String EVENT =
+      "https://www.googleapis.com/calendar/v3/calendars/primary/events/e1";
+  private static final String FILE = "https://www.googleapis.com/drive/v3/files/f1";
+  private final List<MockLowLevelHttpRequest> sent = new ArrayList<>();
+  private byte[] body = "{\"id\":\"e1\"}".getBytes(StandardCharsets.UTF_8);
+  private long contentLength = body.length;
+
+  // Answers 304 to a matching If-None-Match and otherwise 200 with an ETag
+  private final JdkHttpTransport google = new JdkHttpTransport(Duration.ofSeconds(1)) {
+    @Override
+    protected LowLevelHttpRequest buildRequest(String method, String url) {
+      return new MockLowLevelHttpRequest(url) {
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+          sent.add(this);
+          if ("\"v1\"".equals(getFirstHeaderValue("If-None-Match"))) {
+            return new MockLowLevelHttpResponse().setStatusCode(304);
+          }
+          MockLowLevelHttpResponse response = new MockLowLevelHttpResponse()
+              .setContentType("application/json")
+              .setContent(body)
+              .setContentLength(contentLength);
+          response.addHeader("ETag", "\"v1\"");
+          response.addHeader("X-Goog-Trace", "t1");
+          return response;
+        }
+      };
+    }
+  };
+  private final CachingHttpTransport transport = new CachingHttpTransport(google, 1 << 20, 64,
+      new SimpleMeterRegistry());
+
+  @AfterEach
+  void shutdown() throws IOException {
+    transport.shutdown();
+  }
+
+  @Test
+  void notModifiedReplaysTheCachedBodyAndHeaders() throws IOException {
+    get(EVENT, "alice");
+    LowLevelHttpResponse replay = get(EVENT, "alice");
+
+    assertEquals("\"v1\"", last().getFirstHeaderValue("If-None-Match"));
+    assertEquals(200, replay.getStatusCode());
+    assertEquals("application/json", replay.getContentType());
+    assertEquals("{\"id\":\"e1\"}", new String(replay.getContent().readAllBytes(),
+        StandardCharsets.UTF_8));
+    assertEquals("X-Goog-Trace", replay.getHeaderName(1));
+    assertEquals("t1", replay.getHeaderValue(1));
+  }
+
+  @Test
+  void cachedResponsesAreKeptPerPrincipal() throws IOException {
+    get(EVENT, "alice");
+    get(EVENT, "bob");
+
+    assertNull(last().getFirstHeaderValue("If-None-Match"));
+    assertNull(last().getFirstHeaderValue(CachingHttpTransport.PRINCIPAL_HEADER));
+    assertTrue(revalidates(EVENT, "alice"));
+    assertTrue(revalidates(EVENT, "bob"));
+  }
+
+  @Test
+  void mutationsDropCachedReadsUnderTheirParentPath() throws IOException {
+    get(EVENT, "alice");
+    get(FILE, "alice");
+
+    send("POST", "https://www.googleapis.com/calendar/v3/freeBusy");
+    assertTrue(revalidates(EVENT, "alice"));
+
+    send("PATCH", EVENT);
+    assertFalse(revalidates(EVENT, "alice"));
+    assertTrue(revalidates(FILE, "alice"));
+
+    send("POST", "https://www.googleapis.com/batch/calendar/v3");
+    assertFalse(revalidates(EVENT, "alice"));
+
+    send("PATCH", "https://www.googleapis.com/upload/drive/v3/files/f1?uploadType=multipart");
+    assertFalse(revalidates(FILE, "alice"));
+  }
+
+  @Test
+  void bodyOverTheEntryLimitIsStreamedBackIntact() throws IOException {
+    body = new byte[1000];
+    Arrays.fill(body, (byte) 'x');
+    body[999] = 'y';
+    // Unknown length, so the size is only found out while reading
+    contentLength = -1;
+
+    LowLevelHttpResponse response = get(FILE, "alice");
+
+    assertArrayEquals(body, response.getContent().readAllBytes());
+    assertFalse(revalidates(FILE, "alice"));
+  }
+
+  private boolean revalidates(String url, String principal) throws IOException {
+    get(url, principal);
+    return last().getFirstHeaderValue("If-None-Match") != null;
+  }
+
+  private LowLevelHttpResponse get(String url, String principal) throws IOException {
+    LowLevelHttpRequest request = transport.buildRequest("GET", url);
+    request.addHeader(CachingHttpTransport.PRINCIPAL_HEADER, principal);
+    return request.execute();
+  }
+
+  private void send(String method, String url) throws IOException {
+    transport.buildRequest(method, url).execute();
+  }
+
+  private MockLowLevelHttpRequest last() {
+    return sent.get(sent.size() - 1);
+  }
+}
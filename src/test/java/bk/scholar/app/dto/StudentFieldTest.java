@@ -0,0 +1,44 @@
+package bk.scholar.app.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StudentFieldTest {
+
+  @Test
+  void idComesFirstThenRequestOrderWithoutDuplicates() {
+    assertEquals(List.of(StudentField.ID, StudentField.CITY, StudentField.NAME),
+        StudentField.parse(List.of(" City", "name", "id", "CITY")));
+    assertEquals(List.of(StudentField.ID, StudentField.METHOD),
+        StudentField.parse(List.of("insertion_method")));
+  }
+
+  @Test
+  void noSelectionMeansAllFields() {
+    assertNull(StudentField.parse(null));
+    assertNull(StudentField.parse(Arrays.asList(" ", null)));
+  }
+
+  @Test
+  void unknownFieldIsRejected() {
+    assertThrows(IllegalArgumentException.class,
+        () -> StudentField.parse(List.of("name", "password")));
+  }
+
+  @Test
+  void tablePageSendsColumnNamesOnce() {
+    StudentItem item = new StudentItem(7L, "Ada", "ada@x.org", "F", "Oslo", "CSV");
+
+    StudentPage page = StudentPage.of(List.of(item), 10,
+        StudentField.parse(List.of("email")), true);
+
+    assertNull(page.students());
+    assertEquals(List.of("id", "email"), page.columns());
+    assertEquals(List.of(List.of(7L, "ada@x.org")), page.rows());
+  }
+}
@@ -0,0 +1,31 @@
+package bk.scholar.app.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class StudentPageTest {
+
+  @Test
+  void extraRowOnlySignalsTheNextPage() {
+    StudentPage page = StudentPage.of(students(3), 2, null, false);
+
+    assertEquals(List.of(1L, 2L), page.students().stream().map(StudentItem::id).toList());
+    assertEquals(2L, page.nextCursor());
+  }
+
+  @Test
+  void lastPageHasNoCursor() {
+    assertNull(StudentPage.of(students(2), 2, null, false).nextCursor());
+    assertNull(StudentPage.of(students(0), 2, null, false).nextCursor());
+  }
+
+  private static List<StudentItem> students(int count) {
+    return LongStream.rangeClosed(1, count)
+        .mapToObj(id -> new StudentItem(id, "s" + id, "s" + id + "@x.org", "F", "Oslo", "CSV"))
+        .toList();
+  }
+}
@@ -0,0 +1,136 @@
+package bk.scholar.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import bk.scholar.app.domain.CalendarEventEntry;
+import bk.scholar.app.dto.CalendarEvent;
+import bk.scholar.app.dto.CalendarEventPage;
+import bk.scholar.app.dto.MirroredEvent;
+import bk.scholar.app.pepository.CalendarEventEntryRepository;
+import bk.scholar.app.pepository.SyncStateRepository;
+import com.google.api.client.googleapis.services.AbstractGoogleClientRequest;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+import com.google.api.services.calendar.model.Events;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class CalendarMirrorServiceTest {
+
+  private static final Instant NINE = Instant.parse("2026-03-02T09:00:00Z");
+  private static final Instant TEN = Instant.parse("2026-03-02T10:00:00Z");
+  private final GoogleApiExecutor googleApi = mock(GoogleApiExecutor.class);
+  private final CalendarEventEntryRepository events = mock(CalendarEventEntryRepository.class);
+  private final SyncStateRepository syncStates = mock(SyncStateRepository.class);
+  private final TransactionTemplate transactions = mock(TransactionTemplate.class);
+  private final CalendarMirrorService mirror = new CalendarMirrorService(calendarProvider(),
+      googleApi, events, syncStates, transactions, true);
+
+  @Test
+  void pageTokenContinuesAfterTheLastEventOfThePage() {
+    when(events.findWindow(eq("primary"), any(), any(), eq(Limit.of(3)))).thenReturn(List.of(
+        new MirroredEvent("a", "A", "ea", NINE),
+        new MirroredEvent("b", "B", "eb", TEN),
+        new MirroredEvent("c", "C", "ec", TEN)));
+    when(events.findWindowAfter("primary", Instant.parse("0001-01-01T00:00:00Z"),
+        Instant.parse("9999-12-31T00:00:00Z"), TEN, "b", Limit.of(3))).thenReturn(List.of(
+        new MirroredEvent("c", "C", "ec", TEN)));
+
+    CalendarEventPage first = mirror.findEvents("primary", null, null, 2, null);
+    CalendarEventPage second = mirror.findEvents("primary", null, null, 2, first.nextPageToken());
+
+    assertEquals(List.of("a", "b"), first.events().stream().map(CalendarEvent::id).toList());
+    assertTrue(first.nextPageToken().startsWith("mirror:"), first.nextPageToken());
+    assertEquals(List.of("c"), second.events().stream().map(CalendarEvent::id).toList());
+    assertNull(second.nextPageToken());
+  }
+
+  @Test
+  void malformedPageTokensAreRejected() {
+    for (String position : List.of("", "2026-03-02T10:00:00Z", "2026-03-02T10:00:00Z|",
+        "|b", "yesterday|b")) {
+      String token = "mirror:" + Base64.getUrlEncoder().withoutPadding()
+          .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+      assertThrows(IllegalArgumentException.class,
+          () -> mirror.findEvents("primary", null, null, 2, token), position);
+    }
+    assertThrows(IllegalArgumentException.class,
+        () -> mirror.findEvents("primary", null, null, 2, "mirror:not base64!"));
+  }
+
+  @Test
+  void servesOnlyItsOwnTokensAndRejectsThemOnceNotReady() {
+    when(syncStates.existsById("calendar:primary")).thenReturn(true);
+    assertTrue(mirror.serves("primary", null));
+    assertTrue(mirror.serves("primary", "mirror:abc"));
+    assertFalse(mirror.serves("primary", "CiAKGjBpNDd2Nmp2"));
+
+    when(syncStates.existsById("calendar:primary")).thenReturn(false);
+    assertFalse(mirror.serves("primary", null));
+    assertThrows(IllegalArgumentException.class, () -> mirror.serves("primary", "mirror:abc"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void syncMirrorsRecurringEventsAsSingleInstances() throws Exception {
+    when(syncStates.findById(anyString())).thenReturn(Optional.empty());
+    ArgumentCaptor<AbstractGoogleClientRequest<Events>> sent =
+        ArgumentCaptor.forClass(AbstractGoogleClientRequest.class);
+    when(googleApi.execute(sent.capture())).thenReturn(new Events()
+        .setNextSyncToken("s1")
+        .setItems(List.of(new Event()
+            .setId("weekly_20260302T090000Z")
+            .setRecurringEventId("weekly")
+            .setStart(new EventDateTime().setDateTime(new DateTime(NINE.toEpochMilli())))
+            .setEnd(new EventDateTime().setDateTime(new DateTime(TEN.toEpochMilli()))))));
+    doAnswer(invocation -> {
+      invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+      return null;
+    }).when(transactions).executeWithoutResult(any());
+
+    mirror.sync("primary");
+
+    // Live reads send the same flag, so both paths return instances
+    assertTrue(CalendarMirrorService.SINGLE_EVENTS);
+    assertEquals(CalendarMirrorService.SINGLE_EVENTS,
+        ((Calendar.Events.List) sent.getValue()).getSingleEvents());
+    ArgumentCaptor<List<CalendarEventEntry>> stored = ArgumentCaptor.forClass(List.class);
+    verify(events).upsertAll(stored.capture());
+    List<CalendarEventEntry> entries = stored.getValue();
+    assertEquals("weekly_20260302T090000Z", entries.get(0).getEventId());
+    assertEquals(NINE, entries.get(0).getStartTime());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ObjectProvider<Calendar> calendarProvider() {
+    ObjectProvider<Calendar> provider = mock(ObjectProvider.class);
+    when(provider.getObject()).thenReturn(new Calendar.Builder(new MockHttpTransport(),
+        JacksonFactory.getDefaultInstance(), null).setApplicationName("test").build());
+    return provider;
+  }
+}
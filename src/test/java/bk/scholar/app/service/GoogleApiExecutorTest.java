@@ -0,0 +1,137 @@
+package bk.scholar.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.googleapis.services.AbstractGoogleClientRequest;
+import com.google.api.client.http.ByteArrayContent;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.drive.Drive;
+import com.google.api.services.drive.model.File;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.SocketException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class GoogleApiExecutorTest {
+
+  private static final int MAX_ATTEMPTS = 3;
+  private final GoogleApiExecutor googleApi = new GoogleApiExecutor(new SimpleMeterRegistry(),
+      1000, 1000, 1000, MAX_ATTEMPTS, Duration.ofMillis(1), Duration.ofMillis(2),
+      Duration.ofSeconds(10));
+  private final AtomicInteger attempts = new AtomicInteger();
+  private String failure;
+
+  // Fails every request the same way: an HTTP status with an optional error reason, or "io"
+  private final MockHttpTransport google = new MockHttpTransport() {
+    @Override
+    public LowLevelHttpRequest buildRequest(String method, String url) {
+      return new MockLowLevelHttpRequest(url) {
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+          attempts.incrementAndGet();
+          if (failure.equals("io")) {
+            throw new SocketException("Connection reset");
+          }
+          String[] status = failure.split(" ");
+          return new MockLowLevelHttpResponse()
+              .setStatusCode(Integer.parseInt(status[0]))
+              .setContentType("application/json")
+              .setContent("{\"error\":{\"code\":" + status[0] + ",\"message\":\"failed\","
+                  + "\"errors\":[{\"reason\":\"" + (status.length > 1 ? status[1] : "backendError")
+                  + "\"}]}}");
+        }
+      };
+    }
+  };
+  private final Calendar calendar = new Calendar.Builder(google,
+      JacksonFactory.getDefaultInstance(), null).setApplicationName("test").build();
+  private final Drive drive = new Drive.Builder(google, JacksonFactory.getDefaultInstance(), null)
+      .setApplicationName("test").build();
+
+  @ParameterizedTest(name = "{0} {1} -> {2} attempts")
+  @CsvSource({
+      // Rejected without being applied: retried whatever the method
+      "GET, 429, 3",
+      "POST, 429, 3",
+      "POST, 403 rateLimitExceeded, 3",
+      "PATCH, 403 userRateLimitExceeded, 3",
+      "POST, 403 forbidden, 1",
+      // Outcome unknown: retried only when repeating cannot duplicate the change
+      "GET, 503, 3",
+      "PUT, 500, 3",
+      "DELETE, 502, 3",
+      "POST, 503, 1",
+      "PATCH, 500, 1",
+      "GET, io, 3",
+      "DELETE, io, 3",
+      "POST, io, 1",
+      "PATCH, io, 1",
+      // Client errors are final
+      "GET, 404, 1",
+      "PUT, 412, 1",
+  })
+  void retriesByStatusAndMethod(String method, String failure, int expectedAttempts) {
+    this.failure = failure;
+
+    assertThrows(IOException.class, () -> googleApi.execute(request(method)));
+    assertEquals(expectedAttempts, attempts.get());
+  }
+
+  @ParameterizedTest(name = "batch {0} -> 1 attempt")
+  @CsvSource({"429", "403 rateLimitExceeded", "503", "io"})
+  void batchesGetOneAttempt(String failure) throws IOException {
+    this.failure = failure;
+    BatchRequest batch = calendar.batch();
+    calendar.events().get("primary", "e1").queue(batch, new JsonBatchCallback<>() {
+      @Override
+      public void onSuccess(Event event, HttpHeaders responseHeaders) {
+      }
+
+      @Override
+      public void onFailure(GoogleJsonError error, HttpHeaders responseHeaders) {
+      }
+    });
+
+    assertThrows(IOException.class, () -> googleApi.execute(batch));
+    assertEquals(1, attempts.get());
+  }
+
+  @ParameterizedTest(name = "upload {0} -> 1 attempt")
+  @CsvSource({"429", "503", "io"})
+  void mediaUploadsGetOneAttempt(String failure) throws IOException {
+    this.failure = failure;
+    Drive.Files.Create upload = drive.files().create(new File().setName("a.txt"),
+        new ByteArrayContent("text/plain", new byte[] {1, 2, 3}));
+    upload.getMediaHttpUploader().setDirectUploadEnabled(true);
+
+    assertThrows(IOException.class, () -> googleApi.execute(upload));
+    assertEquals(1, attempts.get());
+  }
+
+  private AbstractGoogleClientRequest<?> request(String method) throws IOException {
+    Calendar.Events events = calendar.events();
+    return switch (method) {
+      case "GET" -> events.get("primary", "e1");
+      case "PUT" -> events.update("primary", "e1", new Event());
+      case "DELETE" -> events.delete("primary", "e1");
+      case "POST" -> events.insert("primary", new Event());
+      case "PATCH" -> events.patch("primary", "e1", new Event());
+      default -> throw new IllegalArgumentException(method);
+    };
+  }
+}
@@ -0,0 +1,41 @@
+package bk.scholar.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StudentCsvReaderTest {
+
+  @Test
+  void readsQuotedFieldsAndLineBreaks() throws IOException {
+    StudentCsvReader csv = new StudentCsvReader(new StringReader(
+        "name,email\r\n\"Doe, Jane\",\"jane\"\"@x.org\"\n\n\"two\nlines\",\n"));
+
+    assertEquals(List.of("name", "email"), csv.next());
+    assertEquals(List.of("Doe, Jane", "jane\"@x.org"), csv.next());
+    assertEquals(2, csv.recordLine());
+    assertEquals(List.of("two\nlines", ""), csv.next());
+    assertEquals(4, csv.recordLine());
+    assertNull(csv.next());
+  }
+
+  @Test
+  void readsLastRecordWithoutTrailingNewline() throws IOException {
+    StudentCsvReader csv = new StudentCsvReader(new StringReader("a,b"));
+
+    assertEquals(List.of("a", "b"), csv.next());
+    assertNull(csv.next());
+  }
+
+  @Test
+  void rejectsUnterminatedQuote() {
+    StudentCsvReader csv = new StudentCsvReader(new StringReader("\"open,b\n"));
+
+    assertThrows(IOException.class, csv::next);
+  }
+}
@@ -0,0 +1,15 @@
+package bk.scholar.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class StudentServiceTest {
+
+  @Test
+  void prefixTermsDropTsquerySyntax() {
+    assertEquals("mike:* & chicago:*", StudentService.prefixTerms("mike  chicago"));
+    assertEquals("ab:* & s1@x.org:*", StudentService.prefixTerms("a'b & | ! ( :* s1@x.org"));
+    assertEquals("", StudentService.prefixTerms("&& -- ::"));
+  }
+}
@@ -0,0 +1,69 @@
+package bk.scholar.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import bk.scholar.app.service.TimeSlots.Interval;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TimeSlotsTest {
+
+  private static final ZoneId DHAKA = ZoneId.of("Asia/Dhaka");
+
+  @Test
+  void mergesOverlappingAndTouchingPeriods() {
+    List<Interval> merged = TimeSlots.merge(List.of(
+        interval("2025-10-26T11:00:00+06:00", "2025-10-26T12:00:00+06:00"),
+        interval("2025-10-26T09:30:00+06:00", "2025-10-26T10:00:00+06:00"),
+        interval("2025-10-26T10:00:00+06:00", "2025-10-26T10:30:00+06:00"),
+        interval("2025-10-26T11:15:00+06:00", "2025-10-26T11:45:00+06:00")));
+
+    assertEquals(List.of(
+        interval("2025-10-26T09:30:00+06:00", "2025-10-26T10:30:00+06:00"),
+        interval("2025-10-26T11:00:00+06:00", "2025-10-26T12:00:00+06:00")), merged);
+  }
+
+  @Test
+  void freeGapsStayInsideWorkingHours() {
+    List<Interval> busy = TimeSlots.merge(List.of(
+        interval("2025-10-26T08:00:00+06:00", "2025-10-26T10:00:00+06:00"),
+        interval("2025-10-26T12:00:00+06:00", "2025-10-26T12:20:00+06:00"),
+        interval("2025-10-26T16:00:00+06:00", "2025-10-27T09:30:00+06:00")));
+
+    List<Interval> free = TimeSlots.free(busy, instant("2025-10-26T00:00:00+06:00"),
+        instant("2025-10-28T00:00:00+06:00"), DHAKA, LocalTime.of(9, 0), LocalTime.of(17, 0),
+        Duration.ofMinutes(60));
+
+    assertEquals(List.of(
+        interval("2025-10-26T10:00:00+06:00", "2025-10-26T12:00:00+06:00"),
+        interval("2025-10-26T12:20:00+06:00", "2025-10-26T16:00:00+06:00"),
+        interval("2025-10-27T09:30:00+06:00", "2025-10-27T17:00:00+06:00")), free);
+  }
+
+  @Test
+  void sessionsAreAlignedAndLimitedPerDay() {
+    List<Interval> free = List.of(
+        interval("2025-10-26T12:20:00+06:00", "2025-10-26T16:00:00+06:00"),
+        interval("2025-10-27T09:00:00+06:00", "2025-10-27T17:00:00+06:00"));
+
+    List<Interval> sessions = TimeSlots.sessions(free, Duration.ofMinutes(60),
+        Duration.ofMinutes(30), 3, 2, DHAKA);
+
+    assertEquals(List.of(
+        interval("2025-10-26T12:30:00+06:00", "2025-10-26T13:30:00+06:00"),
+        interval("2025-10-26T13:30:00+06:00", "2025-10-26T14:30:00+06:00"),
+        interval("2025-10-27T09:00:00+06:00", "2025-10-27T10:00:00+06:00")), sessions);
+  }
+
+  private static Interval interval(String start, String end) {
+    return new Interval(instant(start), instant(end));
+  }
+
+  private static Instant instant(String value) {
+    return Instant.parse(value);
+  }
+}
@@ -0,0 +1,114 @@
+package bk.scholar.app.tool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bk.scholar.app.tool.DeduplicatingToolCallback.Mode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+
+class DeduplicatingToolCallbackTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final AtomicInteger executions = new AtomicInteger();
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private final ToolCallback counting = new ToolCallback() {
+    @Override
+    public ToolDefinition getToolDefinition() {
+      return ToolDefinition.builder()
+          .name("counting")
+          .description("Counts executions")
+          .inputSchema("{\"type\":\"object\",\"properties\":{\"name\":{\"type\":\"string\"}}}")
+          .build();
+    }
+
+    @Override
+    public String call(String toolInput) {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+      return "result " + executions.incrementAndGet();
+    }
+  };
+
+  @Test
+  void identicalConcurrentReadsShareOneExecution() throws Exception {
+    ToolCallback callback = callback(Mode.SINGLE_FLIGHT);
+    try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+      Future<String> first = callers.submit(() -> callback.call("{\"name\":\"a\",\"limit\":5}"));
+      started.await();
+      Future<String> second = callers.submit(() -> callback.call("{\"limit\":5,\"name\":\"a\"}"));
+      // The second call counts itself as deduplicated before it starts waiting
+      while (registry.counter("scholar.tool.deduplicated", "tool", "counting", "mode",
+          "single_flight").count() == 0) {
+        Thread.sleep(5);
+      }
+      release.countDown();
+
+      assertEquals("result 1", first.get());
+      assertEquals("result 1", second.get());
+    }
+    assertEquals("result 2", callback.call("{\"name\":\"a\",\"limit\":5}"));
+  }
+
+  @Test
+  void retriesWithTheSameKeyReplayTheFirstResult() {
+    release.countDown();
+    ToolCallback callback = callback(Mode.IDEMPOTENT);
+
+    assertTrue(callback.getToolDefinition().inputSchema().contains("\"idempotencyKey\""));
+    assertEquals("result 1", callback.call("{\"name\":\"a\",\"idempotencyKey\":\"k1\"}"));
+    assertEquals("result 1", callback.call("{\"idempotencyKey\":\"k1\",\"name\":\"a\"}"));
+    assertEquals("result 2", callback.call("{\"name\":\"a\",\"idempotencyKey\":\"k1\","
+        + "\"tenant\":\"alice\"}"));
+    assertEquals("result 2", callback.call("{\"name\":\"a\",\"idempotencyKey\":\"k1\","
+        + "\"tenant\":\" alice \"}"));
+    assertEquals("result 1", callback.call("{\"name\":\"a\",\"idempotencyKey\":\"k1\","
+        + "\"tenant\":\"user\"}"));
+    assertEquals("result 3", callback.call("{\"name\":\"a\"}"));
+    assertThrows(ToolExecutionException.class,
+        () -> callback.call("{\"name\":\"b\",\"idempotencyKey\":\"k1\"}"));
+  }
+
+  @Test
+  void retryDuringTheFirstCallWaitsForIt() throws Exception {
+    ToolCallback callback = new DeduplicatingToolCallback(counting, Mode.IDEMPOTENT,
+        Duration.ofMinutes(1), 1, registry);
+    try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+      Future<String> first = callers.submit(
+          () -> callback.call("{\"name\":\"a\",\"idempotencyKey\":\"k1\"}"));
+      started.await();
+      Future<String> retry = callers.submit(
+          () -> callback.call("{\"name\":\"a\",\"idempotencyKey\":\"k1\"}"));
+      while (registry.counter("scholar.tool.deduplicated", "tool", "counting", "mode",
+          "idempotent").count() == 0) {
+        Thread.sleep(5);
+      }
+      release.countDown();
+
+      assertEquals("result 1", first.get());
+      assertEquals("result 1", retry.get());
+    }
+    assertEquals(1, executions.get());
+  }
+
+  private ToolCallback callback(Mode mode) {
+    return new DeduplicatingToolCallback(counting, mode, Duration.ofMinutes(1), 100,
+        registry);
+  }
+}
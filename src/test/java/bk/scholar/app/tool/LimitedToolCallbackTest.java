@@ -0,0 +1,61 @@
+package bk.scholar.app.tool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+
+class LimitedToolCallbackTest {
+
+  private final CountDownLatch finished = new CountDownLatch(1);
+  private final AtomicBoolean slow = new AtomicBoolean(true);
+
+  // The first call ignores interrupts, like a tool blocked in I/O that cannot be cancelled
+  private final ToolCallback stubborn = new ToolCallback() {
+    @Override
+    public ToolDefinition getToolDefinition() {
+      return ToolDefinition.builder()
+          .name("stubborn")
+          .description("Keeps running after a timeout")
+          .inputSchema("{\"type\":\"object\"}")
+          .build();
+    }
+
+    @Override
+    public String call(String toolInput) {
+      if (!slow.getAndSet(false)) {
+        return "fast";
+      }
+      long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+      while (System.nanoTime() < until) {
+        Thread.onSpinWait();
+      }
+      finished.countDown();
+      return "done";
+    }
+  };
+
+  @Test
+  void timedOutCallKeepsItsSlotUntilTheToolReturns() throws Exception {
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      ToolCallback callback = new LimitedToolCallback(stubborn, executor, 1,
+          Duration.ofMillis(50), Duration.ofMillis(50));
+
+      assertThrows(ToolExecutionException.class, () -> callback.call("{}"));
+      // Still running: the only slot is taken
+      assertThrows(ToolExecutionException.class, () -> callback.call("{}"));
+
+      finished.await();
+      assertEquals("fast", callback.call("{}"));
+    }
+  }
+}
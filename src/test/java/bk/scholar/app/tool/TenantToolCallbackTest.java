@@ -0,0 +1,68 @@
+package bk.scholar.app.tool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bk.scholar.app.config.GoogleTenant;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+
+class TenantToolCallbackTest {
+
+  private final ToolCallback tenantEcho = new ToolCallback() {
+    @Override
+    public ToolDefinition getToolDefinition() {
+      return ToolDefinition.builder()
+          .name("echo")
+          .description("Echo the tenant")
+          .inputSchema("{\"type\":\"object\",\"properties\":{\"eventId\":{\"type\":\"string\"}},"
+              + "\"required\":[\"eventId\"]}")
+          .build();
+    }
+
+    @Override
+    public String call(String toolInput) {
+      return GoogleTenant.current();
+    }
+  };
+
+  @Test
+  void addsOptionalTenantToSchema() {
+    String schema = new TenantToolCallback(tenantEcho, tenant -> true).getToolDefinition().inputSchema();
+
+    assertTrue(schema.contains("\"tenant\":{\"type\":\"string\""), schema);
+    assertTrue(schema.contains("\"required\":[\"eventId\"]"), schema);
+  }
+
+  @Test
+  void bindsTenantForTheCallOnly() {
+    TenantToolCallback callback = new TenantToolCallback(tenantEcho,
+        TenantToolCallback.policy(true, Set.of()));
+
+    assertEquals("alice@example.org",
+        callback.call("{\"eventId\":\"e1\",\"tenant\":\"alice@example.org\"}"));
+    assertEquals(GoogleTenant.DEFAULT, callback.call("{\"eventId\":\"e1\"}"));
+    assertEquals(GoogleTenant.DEFAULT, GoogleTenant.current());
+    assertThrows(IllegalArgumentException.class,
+        () -> callback.call("{\"tenant\":\"../StoredCredential\"}"));
+  }
+
+  @Test
+  void refusesTenantsOutsideThePolicy() {
+    TenantToolCallback http = new TenantToolCallback(tenantEcho,
+        TenantToolCallback.policy(false, Set.of()));
+    TenantToolCallback allowList = new TenantToolCallback(tenantEcho,
+        TenantToolCallback.policy(true, Set.of("alice@example.org")));
+
+    assertEquals(GoogleTenant.DEFAULT, http.call("{\"eventId\":\"e1\",\"tenant\":\"user\"}"));
+    assertThrows(IllegalArgumentException.class,
+        () -> http.call("{\"eventId\":\"e1\",\"tenant\":\"alice@example.org\"}"));
+    assertEquals("alice@example.org",
+        allowList.call("{\"eventId\":\"e1\",\"tenant\":\"alice@example.org\"}"));
+    assertThrows(IllegalArgumentException.class,
+        () -> allowList.call("{\"eventId\":\"e1\",\"tenant\":\"bob@example.org\"}"));
+  }
+}